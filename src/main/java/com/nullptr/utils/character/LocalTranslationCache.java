@@ -0,0 +1,530 @@
+package com.nullptr.utils.character;
+
+import com.nullptr.utils.file.FileUtils;
+import net.sf.json.JSONObject;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 本地翻译结果缓存，内存中的结果容量有限，超出容量时淘汰最久未使用的结果，超过有效期的结果不再使用。
+ * 同一内容的并发未命中只调用一次翻译接口，其余调用等待并共享结果。
+ * 可选将结果保存到磁盘目录，内存中未命中时从磁盘读取，重启后仍然有效。
+ * 磁盘中过期的结果只在被读取或调用{@link #purgeExpired()}时删除，未设置文件数上限时目录会持续增长
+ * <pre>{@code
+ *     TranslationUtils.initCache(new LocalTranslationCache(10000, 7, TimeUnit.DAYS)
+ *             .persistTo(Paths.get("/data/translation-cache"), 1000000));
+ * }</pre>
+ * 默认只缓存成功的翻译结果，返回的结果均为副本，修改不会影响缓存
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @version 1.1 2026-10-18 新增磁盘缓存文件数上限
+ * @since 1.0 2026-10-18
+ * @see TranslationUtils#initCache(TranslationCache)
+ */
+public class LocalTranslationCache implements TranslationCache {
+    private static final Log logger = LogFactory.getLog(LocalTranslationCache.class);
+    /** 磁盘缓存文件的扩展名 */
+    private static final String FILE_SUFFIX = ".json";
+
+    private final Map<Key, CachedResult> cache;
+    private final long ttlMillis;
+    private final ConcurrentMap<Key, CompletableFuture<JSONObject>> loading = new ConcurrentHashMap<>();
+    private Path directory;
+    /** 磁盘中最多保存的文件数，为0时不限制 */
+    private int maxFiles;
+    /** 磁盘中的文件数，只在设置了文件数上限时统计 */
+    private final AtomicInteger fileCount = new AtomicInteger();
+    private Predicate<JSONObject> cacheable = result -> !result.containsKey("error");
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder diskHitCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+
+    /**
+     * 创建缓存
+     *
+     * @param maxSize 内存中最多缓存的结果数量
+     * @param ttl 结果的有效期
+     * @param unit 时间单位
+     */
+    public LocalTranslationCache(int maxSize, long ttl, TimeUnit unit) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0");
+        }
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("有效期必须大于0");
+        }
+        this.ttlMillis = unit.toMillis(ttl);
+        this.cache = new LruMap<>(maxSize, evictionCount);
+    }
+
+    /**
+     * 将结果保存到磁盘目录，每个结果一个文件，目录不存在时自动创建。
+     * 磁盘中的文件数不受限制，需定期调用{@link #purgeExpired()}清理过期的结果
+     *
+     * @param directory 缓存目录
+     * @return 当前缓存
+     * @throws UncheckedIOException 创建目录失败时抛出
+     */
+    public LocalTranslationCache persistTo(Path directory) {
+        return persistTo(directory, 0);
+    }
+
+    /**
+     * 将结果保存到磁盘目录，每个结果一个文件，目录不存在时自动创建。
+     * 文件数超出上限时删除最早写入的文件，直至文件数降至上限的90%，过期的文件总是最早写入的
+     *
+     * @param directory 缓存目录
+     * @param maxFiles 磁盘中最多保存的文件数，为0时不限制
+     * @return 当前缓存
+     * @throws UncheckedIOException 创建或读取目录失败时抛出
+     */
+    public LocalTranslationCache persistTo(Path directory, int maxFiles) {
+        if (maxFiles < 0) {
+            throw new IllegalArgumentException("文件数上限不能小于0");
+        }
+        try {
+            Files.createDirectories(directory);
+            this.directory = directory;
+            this.maxFiles = maxFiles;
+            if (maxFiles > 0) {
+                fileCount.set(listFiles().size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    /**
+     * 设置哪些翻译结果可以缓存
+     *
+     * @param cacheable 结果是否可以缓存，默认不缓存包含error的结果
+     * @return 当前缓存
+     */
+    public LocalTranslationCache cacheable(Predicate<JSONObject> cacheable) {
+        this.cacheable = cacheable;
+        return this;
+    }
+
+    @Override
+    public JSONObject get(String from, String to, String word, Supplier<JSONObject> loader) {
+        Key key = new Key(from, to, word);
+        JSONObject result = getFromMemory(key);
+        if (result != null) {
+            hitCount.increment();
+            return copy(result);
+        }
+        CompletableFuture<JSONObject> future = new CompletableFuture<>();
+        CompletableFuture<JSONObject> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCount.increment();
+            return copy(await(existing));
+        }
+        try {
+            result = load(key, loader);
+            future.complete(result);
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+        return copy(result);
+    }
+
+    /**
+     * 删除内存与磁盘中所有已过期的结果
+     */
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            cache.values().removeIf(entry -> entry.isExpired(now));
+        }
+        if (directory == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                readFile(file);
+            }
+        } catch (IOException e) {
+            logger.warn("清理翻译缓存目录" + directory + "失败", e);
+        }
+    }
+
+    /**
+     * 获取在内存中命中的次数
+     *
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 获取内存中未命中、在磁盘中命中的次数
+     *
+     * @return 磁盘命中次数
+     */
+    public long getDiskHitCount() {
+        return diskHitCount.sum();
+    }
+
+    /**
+     * 获取等待其他线程调用翻译接口并共享结果的次数
+     *
+     * @return 共享结果的次数
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * 获取调用翻译接口的次数
+     *
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 获取因超出容量而被淘汰的结果数量
+     *
+     * @return 淘汰数量
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 获取因过期而被丢弃的结果数量
+     *
+     * @return 过期数量
+     */
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * 获取命中率，即未调用翻译接口的获取次数所占比例，包括磁盘命中和共享结果
+     *
+     * @return 命中率，没有获取过结果时为0
+     */
+    public double getHitRate() {
+        long hits = hitCount.sum() + diskHitCount.sum() + coalescedCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * 获取内存中缓存的结果数量
+     *
+     * @return 结果数量
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * 清空内存与磁盘中的结果及命中统计
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        if (directory != null) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                logger.warn("清空翻译缓存目录" + directory + "失败", e);
+            }
+            fileCount.set(0);
+        }
+        hitCount.reset();
+        diskHitCount.reset();
+        coalescedCount.reset();
+        missCount.reset();
+        evictionCount.reset();
+        expiredCount.reset();
+    }
+
+    /**
+     * 依次从内存、磁盘获取结果，都未命中时调用翻译接口
+     */
+    private JSONObject load(Key key, Supplier<JSONObject> loader) {
+        // 其他线程可能在本线程检查内存后刚完成加载
+        JSONObject result = getFromMemory(key);
+        if (result != null) {
+            hitCount.increment();
+            return result;
+        }
+        CachedResult entry = directory == null ? null : readFile(directory.resolve(key.fileName()));
+        if (entry != null) {
+            diskHitCount.increment();
+            putToMemory(key, entry);
+            return entry.result;
+        }
+        missCount.increment();
+        result = loader.get();
+        if (result != null && cacheable.test(result)) {
+            // 缓存副本，避免调用方修改结果
+            entry = new CachedResult(copy(result), System.currentTimeMillis() + ttlMillis);
+            putToMemory(key, entry);
+            if (directory != null) {
+                writeFile(directory.resolve(key.fileName()), entry);
+            }
+        }
+        return result;
+    }
+
+    private JSONObject getFromMemory(Key key) {
+        synchronized (cache) {
+            CachedResult entry = cache.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(System.currentTimeMillis())) {
+                cache.remove(key);
+                expiredCount.increment();
+                return null;
+            }
+            return entry.result;
+        }
+    }
+
+    private void putToMemory(Key key, CachedResult entry) {
+        synchronized (cache) {
+            cache.put(key, entry);
+        }
+    }
+
+    /**
+     * 读取磁盘中的结果，第一行为过期时间，之后为结果的json，已过期或无法解析的文件被删除
+     */
+    private CachedResult readFile(Path file) {
+        try {
+            String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            int split = content.indexOf('\n');
+            long expiresAt = Long.parseLong(content.substring(0, split));
+            if (expiresAt <= System.currentTimeMillis()) {
+                expiredCount.increment();
+                deleteFile(file);
+                return null;
+            }
+            return new CachedResult(JSONObject.fromObject(content.substring(split + 1)), expiresAt);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("读取翻译缓存文件" + file + "失败", e);
+            return null;
+        } catch (RuntimeException e) {
+            logger.warn("翻译缓存文件" + file + "已损坏，文件将被删除", e);
+            try {
+                deleteFile(file);
+            } catch (IOException ignored) {
+                // 下次读取时再次尝试删除
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 原子写入磁盘文件，写入失败时只记录日志，结果仍保留在内存中
+     */
+    private void writeFile(Path file, CachedResult entry) {
+        byte[] content = (entry.expiresAt + "\n" + entry.result).getBytes(StandardCharsets.UTF_8);
+        boolean created = maxFiles > 0 && !Files.exists(file);
+        try {
+            FileUtils.replaceFile(file.toString(), output -> output.write(content), false);
+        } catch (IOException e) {
+            logger.warn("写入翻译缓存文件" + file + "失败", e);
+            return;
+        }
+        if (created && fileCount.incrementAndGet() > maxFiles) {
+            trimFiles();
+        }
+    }
+
+    private void deleteFile(Path file) throws IOException {
+        if (Files.deleteIfExists(file) && maxFiles > 0) {
+            fileCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * 删除最早写入的文件，直至文件数降至上限的90%，同一时间只有一个线程执行清理
+     */
+    private synchronized void trimFiles() {
+        if (fileCount.get() <= maxFiles) {
+            return;
+        }
+        try {
+            List<Path> files = listFiles();
+            Map<Path, Long> modified = new HashMap<>(files.size() * 2);
+            for (Path file : files) {
+                try {
+                    modified.put(file, Files.getLastModifiedTime(file).toMillis());
+                } catch (NoSuchFileException e) {
+                    // 文件已被其他线程删除
+                }
+            }
+            files = new ArrayList<>(modified.keySet());
+            files.sort(Comparator.comparing(modified::get));
+            int target = maxFiles - maxFiles / 10;
+            int remaining = files.size();
+            for (int i = 0; i < files.size() && remaining > target; i++) {
+                if (Files.deleteIfExists(files.get(i))) {
+                    remaining--;
+                }
+            }
+            fileCount.set(remaining);
+        } catch (IOException e) {
+            logger.warn("清理翻译缓存目录" + directory + "失败", e);
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private static JSONObject await(CompletableFuture<JSONObject> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static JSONObject copy(JSONObject result) {
+        return result == null ? null : JSONObject.fromObject(result);
+    }
+
+    /**
+     * 缓存键
+     */
+    private static final class Key {
+        private final String from;
+        private final String to;
+        private final String word;
+
+        private Key(String from, String to, String word) {
+            this.from = from;
+            this.to = to;
+            this.word = word;
+        }
+
+        /**
+         * 磁盘缓存文件名，为键的SHA-256摘要
+         */
+        private String fileName() {
+            return DigestUtils.sha256Hex(from + '\0' + to + '\0' + word) + FILE_SUFFIX;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(from, key.from) && Objects.equals(to, key.to) && Objects.equals(word, key.word);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(from, to, word);
+        }
+    }
+
+    /**
+     * 按访问顺序淘汰最久未使用结果的映射
+     */
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+        private final LongAdder evictionCount;
+
+        private LruMap(int maxSize, LongAdder evictionCount) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.evictionCount = evictionCount;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > maxSize) {
+                evictionCount.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 缓存的结果及过期时间
+     */
+    private static final class CachedResult {
+        private final JSONObject result;
+        private final long expiresAt;
+
+        private CachedResult(JSONObject result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.nullptr.utils.character;
+
+import net.sf.json.JSONObject;
+
+import java.util.function.Supplier;
+
+/**
+ * 翻译结果缓存，以源语言、目标语言和待翻译内容作为键
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ * @see TranslationUtils#initCache(TranslationCache)
+ * @see LocalTranslationCache
+ */
+@FunctionalInterface
+public interface TranslationCache {
+    /**
+     * 获取翻译结果，缓存中不存在时调用翻译接口并缓存结果
+     *
+     * @param from 源语言
+     * @param to 目标语言
+     * @param word 待翻译内容
+     * @param loader 调用翻译接口，请求失败时返回null
+     * @return 翻译结果，请求失败时为null
+     */
+    JSONObject get(String from, String to, String word, Supplier<JSONObject> loader);
+}
@@ -0,0 +1,204 @@
+package com.nullptr.utils.character;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 翻译接口使用的HTTP客户端，连接由连接池管理并保持长连接，后续请求复用已建立的TCP及TLS连接。
+ * 空闲超时的连接和已过期的连接由后台线程定期关闭
+ * <pre>{@code
+ *     TranslationHttpClient client = new TranslationHttpClient()
+ *             .maxPerRoute(20)
+ *             .socketTimeout(3, TimeUnit.SECONDS);
+ *     TranslationUtils.initHttpClient(client);
+ *     ...
+ *     client.close();
+ * }</pre>
+ * 配置需在首次请求前完成，客户端在首次请求时创建，关闭后不能再使用
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ * @see TranslationUtils#initHttpClient(TranslationHttpClient)
+ */
+public class TranslationHttpClient implements Closeable {
+    private int maxTotal = 20;
+    private int maxPerRoute = 10;
+    private int connectTimeoutMillis = 5000;
+    private int socketTimeoutMillis = 10000;
+    private int connectionRequestTimeoutMillis = 5000;
+    private long idleTimeoutMillis = 30000;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private boolean closed;
+
+    /**
+     * 设置连接池的连接总数上限
+     *
+     * @param maxTotal 连接总数上限，默认为20
+     * @return 当前客户端
+     */
+    public TranslationHttpClient maxTotal(int maxTotal) {
+        if (maxTotal <= 0) {
+            throw new IllegalArgumentException("连接数上限必须大于0");
+        }
+        this.maxTotal = maxTotal;
+        return this;
+    }
+
+    /**
+     * 设置每个目标主机的连接数上限
+     *
+     * @param maxPerRoute 每个目标主机的连接数上限，默认为10
+     * @return 当前客户端
+     */
+    public TranslationHttpClient maxPerRoute(int maxPerRoute) {
+        if (maxPerRoute <= 0) {
+            throw new IllegalArgumentException("连接数上限必须大于0");
+        }
+        this.maxPerRoute = maxPerRoute;
+        return this;
+    }
+
+    /**
+     * 设置建立连接的时限
+     *
+     * @param timeout 时限，默认为5秒
+     * @param unit 时间单位
+     * @return 当前客户端
+     */
+    public TranslationHttpClient connectTimeout(long timeout, TimeUnit unit) {
+        this.connectTimeoutMillis = toMillis(timeout, unit);
+        return this;
+    }
+
+    /**
+     * 设置等待响应数据的时限
+     *
+     * @param timeout 时限，默认为10秒
+     * @param unit 时间单位
+     * @return 当前客户端
+     */
+    public TranslationHttpClient socketTimeout(long timeout, TimeUnit unit) {
+        this.socketTimeoutMillis = toMillis(timeout, unit);
+        return this;
+    }
+
+    /**
+     * 设置连接池已满时等待空闲连接的时限
+     *
+     * @param timeout 时限，默认为5秒
+     * @param unit 时间单位
+     * @return 当前客户端
+     */
+    public TranslationHttpClient connectionRequestTimeout(long timeout, TimeUnit unit) {
+        this.connectionRequestTimeoutMillis = toMillis(timeout, unit);
+        return this;
+    }
+
+    /**
+     * 设置连接的空闲时限，空闲超过时限的连接被关闭
+     *
+     * @param timeout 时限，默认为30秒
+     * @param unit 时间单位
+     * @return 当前客户端
+     */
+    public TranslationHttpClient idleTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("空闲时限必须大于0");
+        }
+        this.idleTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * 以表单形式发送POST请求，请求和响应均使用UTF-8编码
+     *
+     * @param url 请求地址
+     * @param params 表单参数
+     * @return 响应内容
+     * @throws IOException 请求失败或响应状态码不为2xx时抛出
+     * @throws IllegalStateException 客户端已关闭时抛出
+     */
+    public String post(String url, List<NameValuePair> params) throws IOException {
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setEntity(new UrlEncodedFormEntity(params, StandardCharsets.UTF_8));
+        // 由响应处理器读取响应内容，之后连接归还连接池
+        return client().execute(httpPost, response -> {
+            int status = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            String content = entity == null ? "" : EntityUtils.toString(entity, StandardCharsets.UTF_8);
+            if (status < 200 || status >= 300) {
+                throw new IOException("请求" + url + "失败，状态码为" + status);
+            }
+            return content;
+        });
+    }
+
+    /**
+     * 获取连接池的统计信息
+     *
+     * @return 连接池统计信息，客户端尚未创建时为null
+     */
+    public synchronized PoolStats getPoolStats() {
+        return connectionManager == null ? null : connectionManager.getTotalStats();
+    }
+
+    /**
+     * 关闭客户端，关闭连接池中的所有连接并停止清理空闲连接的后台线程
+     *
+     * @throws IOException 关闭失败时抛出
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (httpClient != null) {
+            httpClient.close();
+        }
+    }
+
+    private synchronized CloseableHttpClient client() {
+        if (closed) {
+            throw new IllegalStateException("HTTP客户端已关闭");
+        }
+        if (httpClient == null) {
+            connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(maxTotal);
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            RequestConfig requestConfig = RequestConfig.custom()
+                    .setConnectTimeout(connectTimeoutMillis)
+                    .setSocketTimeout(socketTimeoutMillis)
+                    .setConnectionRequestTimeout(connectionRequestTimeoutMillis)
+                    .build();
+            httpClient = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(requestConfig)
+                    .evictExpiredConnections()
+                    .evictIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .build();
+        }
+        return httpClient;
+    }
+
+    private static int toMillis(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("时限不能小于0");
+        }
+        return (int) Math.min(Integer.MAX_VALUE, unit.toMillis(timeout));
+    }
+}
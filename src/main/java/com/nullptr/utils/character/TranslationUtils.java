@@ -10,26 +10,30 @@ import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
-import org.apache.http.HttpEntity;
 import org.apache.http.NameValuePair;
-import org.apache.http.client.entity.UrlEncodedFormEntity;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicNameValuePair;
-import org.apache.http.util.EntityUtils;
 
 /**
  * 英汉翻译工具，基于有道云api
  *
  * @author nullptr
  * @version 1.0 2020-10-9
+ * @version 1.1 2026-10-18 使用共享的连接池客户端发送请求并复用长连接，接口地址可配置
+ * @version 1.2 2026-10-18 支持缓存翻译结果
+ * @version 1.3 2026-10-18 请求期间客户端被替换或关闭时使用新的客户端重试
  * @since 1.0 2020-10-9
  */
 public class TranslationUtils {
+    private static final Log logger = LogFactory.getLog(TranslationUtils.class);
     private static final String API_URL = "https://openapi.youdao.com/api";
+    private static volatile String apiUrl = API_URL;
+    private static TranslationHttpClient httpClient;
+    /** 当前客户端是否由本工具创建 */
+    private static boolean defaultClient;
+    private static volatile TranslationCache cache;
     private static String APP_KEY;
     private static String APP_SECRET;
     private static final char[] HEX_DIGITS =
@@ -40,12 +44,78 @@ public class TranslationUtils {
         APP_SECRET = appSecret;
     }
 
+    /**
+     * 设置翻译接口地址，用于代理或测试
+     *
+     * @param url 接口地址，为空时使用有道云api地址
+     */
+    public static void initApiUrl(String url) {
+        apiUrl = url == null ? API_URL : url;
+    }
+
+    /**
+     * 设置发送翻译请求的HTTP客户端，未设置时在首次请求时使用默认配置创建。
+     * 之前由本工具创建的默认客户端会被关闭，调用方设置的客户端由调用方关闭
+     *
+     * @param client HTTP客户端
+     */
+    public static synchronized void initHttpClient(TranslationHttpClient client) {
+        closeDefaultClient();
+        httpClient = client;
+        defaultClient = false;
+    }
+
+    /**
+     * 设置翻译结果缓存，相同的源语言、目标语言和内容不再重复请求翻译接口
+     *
+     * @param translationCache 翻译结果缓存，为空时不缓存
+     * @see LocalTranslationCache
+     */
+    public static void initCache(TranslationCache translationCache) {
+        cache = translationCache;
+    }
+
+    /**
+     * 关闭由本工具创建的默认HTTP客户端，之后的请求会重新创建客户端
+     */
+    public static synchronized void shutdown() {
+        closeDefaultClient();
+        httpClient = null;
+    }
+
+    private static synchronized TranslationHttpClient httpClient() {
+        if (httpClient == null) {
+            httpClient = new TranslationHttpClient();
+            defaultClient = true;
+        }
+        return httpClient;
+    }
+
+    private static void closeDefaultClient() {
+        if (defaultClient && httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                logger.warn("关闭HTTP客户端失败", e);
+            }
+        }
+    }
+
     public JSONObject toChinese(String word) {
-        return doRequest(initParams("en", "zh_CN", word));
+        return translate("en", "zh_CN", word);
     }
 
     public JSONObject toEnglish(String word) {
-        return doRequest(initParams("zh_CN", "en", word));
+        return translate("zh_CN", "en", word);
+    }
+
+    private JSONObject translate(String from, String to, String word) {
+        TranslationCache translationCache = cache;
+        if (translationCache == null) {
+            return doRequest(initParams(from, to, word));
+        }
+        // 签名参数包含时间戳，需在实际请求时生成
+        return translationCache.get(from, to, word, () -> doRequest(initParams(from, to, word)));
     }
 
     private List<NameValuePair> initParams(String from, String to, String word) {
@@ -65,27 +135,35 @@ public class TranslationUtils {
         return paramList;
     }
 
+    /**
+     * 发送翻译请求，连接池中的连接在请求之间复用。
+     * 其他线程可能在请求期间替换或关闭默认客户端，此时请求因连接关闭或客户端已关闭而失败，
+     * 翻译请求可重复发送，因此改用当前客户端重试一次
+     */
     private JSONObject doRequest(List<NameValuePair> paramList) {
-        // 创建HttpClient
-        CloseableHttpClient httpClient = HttpClients.createDefault();
-        // httpPost
-        HttpPost httpPost = new HttpPost(API_URL);
-        try {
-            httpPost.setEntity(new UrlEncodedFormEntity(paramList, "UTF-8"));
-            CloseableHttpResponse httpResponse = httpClient.execute(httpPost);
-            HttpEntity httpEntity = httpResponse.getEntity();
-            String json = EntityUtils.toString(httpEntity, "UTF-8");
-            httpResponse.close();
+        TranslationHttpClient client = httpClient();
+        for (int retry = 0; ; retry++) {
+            String json;
+            try {
+                json = client.post(apiUrl, paramList);
+            } catch (IOException | IllegalStateException e) {
+                TranslationHttpClient current = httpClient();
+                if (current != client && retry == 0) {
+                    client = current;
+                    continue;
+                }
+                logger.warn("翻译请求失败", e);
+                return null;
+            }
             return parseJSON(JSONObject.fromObject(json));
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
         }
     }
 
     private JSONObject parseJSON(JSONObject object) {
         JSONObject result = new JSONObject();
-        System.out.println(object);
+        if (logger.isDebugEnabled()) {
+            logger.debug(object);
+        }
         int errorCode = Integer.parseInt(object.getString("errorCode"));
         if (errorCode != 0) {
             result.put("error", "请输入正确的单词");
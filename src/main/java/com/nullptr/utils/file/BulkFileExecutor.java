@@ -0,0 +1,236 @@
+package com.nullptr.utils.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量文件处理器，在线程池中并行读取、写入多个文件，并通过并发上限限制同时处理的文件数。
+ * 每个文件的处理结果或异常单独返回，不会因单个文件失败而中断整个批次
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ * @see FileUtils
+ */
+public class BulkFileExecutor implements Closeable {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final ExecutorService executor;
+    /** 是否由当前处理器创建线程池，创建的线程池在关闭时一同关闭 */
+    private final boolean ownExecutor;
+    /** 并发上限 */
+    private final Semaphore permits;
+
+    /**
+     * 创建批量文件处理器，运行环境支持虚拟线程时使用虚拟线程，否则使用固定大小的守护线程池
+     *
+     * @param concurrency 并发上限
+     */
+    public BulkFileExecutor(int concurrency) {
+        this(newDefaultExecutor(concurrency), concurrency, true);
+    }
+
+    /**
+     * 使用指定的线程池创建批量文件处理器，线程池由调用方负责关闭
+     *
+     * @param executor 线程池
+     * @param concurrency 并发上限
+     */
+    public BulkFileExecutor(ExecutorService executor, int concurrency) {
+        this(executor, concurrency, false);
+    }
+
+    private BulkFileExecutor(ExecutorService executor, int concurrency, boolean ownExecutor) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("并发上限必须大于0");
+        }
+        this.executor = executor;
+        this.permits = new Semaphore(concurrency);
+        this.ownExecutor = ownExecutor;
+    }
+
+    /**
+     * 批量读取文件数据
+     *
+     * @param fileNames 文件名列表
+     * @return 与文件名顺序一致的读取结果
+     * @throws InterruptedException 等待处理结果时被中断
+     */
+    public List<Result<String, byte[]>> readAll(Collection<String> fileNames) throws InterruptedException {
+        return execute(fileNames, FileUtils::readFileBytes);
+    }
+
+    /**
+     * 批量写入文件数据，每个文件均以原子替换方式写入
+     *
+     * @param files 文件名与文件数据的映射
+     * @return 与映射迭代顺序一致的写入结果，成功时结果值为文件路径
+     * @throws InterruptedException 等待处理结果时被中断
+     * @see FileUtils#replaceFile(String, FileUtils.DataWriter, boolean)
+     */
+    public List<Result<Map.Entry<String, byte[]>, Path>> writeAll(Map<String, byte[]> files)
+            throws InterruptedException {
+        return execute(files.entrySet(), entry -> {
+            String filePath = FileUtils.replaceSplit(entry.getKey());
+            FileUtils.replaceFile(filePath, output -> output.write(entry.getValue()), false);
+            return Paths.get(filePath);
+        });
+    }
+
+    /**
+     * 对每个元素并行执行文件操作，同时执行的操作数不超过并发上限，
+     * 达到上限时调用线程会等待已提交的操作完成
+     *
+     * @param items 待处理的元素
+     * @param operation 文件操作
+     * @param <T> 元素类型
+     * @param <R> 操作结果类型
+     * @return 与元素顺序一致的处理结果
+     * @throws InterruptedException 等待处理结果时被中断
+     */
+    public <T, R> List<Result<T, R>> execute(Collection<T> items, Operation<T, R> operation)
+            throws InterruptedException {
+        List<Future<Result<T, R>>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            permits.acquire();
+            try {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return new Result<>(item, operation.apply(item), null);
+                    } catch (Exception e) {
+                        return new Result<>(item, null, e);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        List<Result<T, R>> results = new ArrayList<>(futures.size());
+        for (Future<Result<T, R>> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                // 操作中的异常均已被捕获，此处只会出现Error
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 关闭处理器，由处理器创建的线程池会一同关闭
+     */
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 创建默认线程池，运行环境（JDK 21及以上）支持虚拟线程时使用虚拟线程
+     *
+     * @param concurrency 并发上限
+     * @return 线程池
+     */
+    private static ExecutorService newDefaultExecutor(int concurrency) {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "bulk-file-" + THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 文件操作
+     *
+     * @param <T> 元素类型
+     * @param <R> 操作结果类型
+     */
+    @FunctionalInterface
+    public interface Operation<T, R> {
+        /**
+         * 对元素执行文件操作
+         *
+         * @param item 元素
+         * @return 操作结果
+         * @throws IOException 操作失败时抛出
+         */
+        R apply(T item) throws IOException;
+    }
+
+    /**
+     * 单个元素的处理结果
+     *
+     * @param <T> 元素类型
+     * @param <R> 操作结果类型
+     */
+    public static class Result<T, R> {
+        private final T item;
+        private final R value;
+        private final Exception error;
+
+        private Result(T item, R value, Exception error) {
+            this.item = item;
+            this.value = value;
+            this.error = error;
+        }
+
+        /**
+         * 获取处理的元素
+         *
+         * @return 处理的元素
+         */
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * 获取操作结果
+         *
+         * @return 操作结果，操作失败时为null
+         */
+        public R getValue() {
+            return value;
+        }
+
+        /**
+         * 获取操作失败的异常
+         *
+         * @return 操作失败的异常，操作成功时为null
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        /**
+         * 判断操作是否成功
+         *
+         * @return 成功则返回true，否则为false
+         */
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
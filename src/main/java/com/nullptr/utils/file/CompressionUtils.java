@@ -0,0 +1,406 @@
+package com.nullptr.utils.file;
+
+import java.io.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.*;
+
+/**
+ * 流式压缩工具，支持gzip与deflate(zlib)两种格式，读取时可自动识别格式。
+ * 压缩和解压使用的{@link Deflater}、{@link Inflater}从对象池中获取，关闭流时归还，
+ * 避免频繁创建和释放本地内存
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ */
+public class CompressionUtils {
+    /** 每种参数的对象池大小 */
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    /** 压缩器对象池，按压缩级别(-1~9)和是否包含zlib头部区分 */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final BlockingQueue<Deflater>[] DEFLATERS = new BlockingQueue[22];
+    /** 解压器对象池，按是否包含zlib头部区分 */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final BlockingQueue<Inflater>[] INFLATERS = new BlockingQueue[2];
+    /** 识别deflate格式时试解压的最大字节数 */
+    private static final int PROBE_SIZE = 512;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    static {
+        for (int i = 0; i < DEFLATERS.length; i++) {
+            DEFLATERS[i] = new ArrayBlockingQueue<>(POOL_SIZE);
+        }
+        for (int i = 0; i < INFLATERS.length; i++) {
+            INFLATERS[i] = new ArrayBlockingQueue<>(POOL_SIZE);
+        }
+    }
+
+    private CompressionUtils() {
+    }
+
+    /**
+     * 使用默认压缩级别创建压缩输出流
+     *
+     * @param output 目标输出流
+     * @param format 压缩格式
+     * @return 压缩输出流，关闭时会同时关闭目标输出流
+     * @throws IOException 写入gzip头部失败时抛出
+     */
+    public static OutputStream compress(OutputStream output, Format format) throws IOException {
+        return compress(output, format, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * 创建压缩输出流
+     *
+     * @param output 目标输出流
+     * @param format 压缩格式
+     * @param level 压缩级别，0~9或{@link Deflater#DEFAULT_COMPRESSION}
+     * @return 压缩输出流，关闭时会同时关闭目标输出流
+     * @throws IOException 写入gzip头部失败时抛出
+     */
+    public static OutputStream compress(OutputStream output, Format format, int level) throws IOException {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("压缩级别必须为-1~9");
+        }
+        return new PooledDeflaterOutputStream(output, format == Format.GZIP, level);
+    }
+
+    /**
+     * 创建解压输入流，根据数据头部自动识别gzip或deflate格式，无法识别时按未压缩数据读取。
+     * zlib头部只有两个字节，未压缩数据也可能与之相符，因此识别为deflate格式前会试解压数据开头的部分
+     *
+     * @param input 源输入流
+     * @return 解压输入流，关闭时会同时关闭源输入流
+     * @throws IOException 读取头部失败时抛出
+     */
+    public static InputStream decompress(InputStream input) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(input, PROBE_SIZE);
+        byte[] head = new byte[PROBE_SIZE];
+        int length = 0;
+        int count;
+        while (length < PROBE_SIZE && (count = pushback.read(head, length, PROBE_SIZE - length)) != -1) {
+            length += count;
+        }
+        pushback.unread(head, 0, length);
+        Format format = detect(head, length);
+        return format == null ? pushback : decompress(pushback, format);
+    }
+
+    /**
+     * 按指定格式创建解压输入流
+     *
+     * @param input 源输入流
+     * @param format 压缩格式
+     * @return 解压输入流，关闭时会同时关闭源输入流
+     * @throws IOException 读取gzip头部失败时抛出
+     */
+    public static InputStream decompress(InputStream input, Format format) throws IOException {
+        return new PooledInflaterInputStream(input, format == Format.GZIP);
+    }
+
+    /**
+     * 压缩字节数组
+     *
+     * @param data 原始数据
+     * @param format 压缩格式
+     * @param level 压缩级别
+     * @return 压缩后的数据
+     */
+    public static byte[] compress(byte[] data, Format format, int level) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream stream = compress(output, format, level)) {
+            stream.write(data);
+        } catch (IOException e) {
+            // 写入内存不会发生IO异常
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * 解压字节数组，自动识别压缩格式，无法识别时原样返回。
+     * 识别为deflate格式的数据解压失败时同样原样返回，未压缩数据可能恰好以符合zlib头部的两个字节开头
+     *
+     * @param data 压缩数据
+     * @return 解压后的数据
+     * @throws IOException gzip数据损坏时抛出
+     */
+    public static byte[] decompress(byte[] data) throws IOException {
+        Format format = detect(data, Math.min(data.length, PROBE_SIZE));
+        if (format == null) {
+            return data;
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length * 4);
+        try (InputStream stream = decompress(new ByteArrayInputStream(data), format)) {
+            byte[] buffer = new byte[FileUtils.BUFFER_SIZE];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+        } catch (ZipException e) {
+            if (format == Format.DEFLATE) {
+                return data;
+            }
+            throw e;
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * 根据前两个字节识别压缩格式
+     *
+     * @param b0 第一个字节
+     * @param b1 第二个字节
+     * @return 压缩格式，无法识别时返回null
+     */
+    public static Format detect(int b0, int b1) {
+        if ((b1 << 8 | b0) == GZIP_MAGIC) {
+            return Format.GZIP;
+        }
+        // zlib头部：压缩方法为8，窗口大小不超过32K，未使用预设字典，且头部两字节能被31整除
+        if ((b0 & 0x0f) == 8 && (b0 >> 4) <= 7 && (b1 & 0x20) == 0 && ((b0 << 8) | b1) % 31 == 0) {
+            return Format.DEFLATE;
+        }
+        return null;
+    }
+
+    /**
+     * 根据数据开头识别压缩格式，头部符合zlib格式时试解压，解压失败或需要预设字典时视为未压缩数据
+     */
+    private static Format detect(byte[] head, int length) {
+        Format format = length < 2 ? null : detect(head[0] & 0xff, head[1] & 0xff);
+        return format == Format.DEFLATE && !inflates(head, length) ? null : format;
+    }
+
+    private static boolean inflates(byte[] head, int length) {
+        Inflater inflater = borrowInflater(false);
+        try {
+            inflater.setInput(head, 0, length);
+            byte[] buffer = new byte[PROBE_SIZE];
+            while (!inflater.finished() && !inflater.needsInput() && !inflater.needsDictionary()) {
+                inflater.inflate(buffer);
+            }
+            return !inflater.needsDictionary();
+        } catch (DataFormatException e) {
+            return false;
+        } finally {
+            releaseInflater(inflater, false);
+        }
+    }
+
+    private static Deflater borrowDeflater(int level, boolean nowrap) {
+        Deflater deflater = DEFLATERS[deflaterIndex(level, nowrap)].poll();
+        return deflater != null ? deflater : new Deflater(level, nowrap);
+    }
+
+    private static void releaseDeflater(Deflater deflater, int level, boolean nowrap) {
+        deflater.reset();
+        if (!DEFLATERS[deflaterIndex(level, nowrap)].offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private static int deflaterIndex(int level, boolean nowrap) {
+        return (level + 1) * 2 + (nowrap ? 1 : 0);
+    }
+
+    private static Inflater borrowInflater(boolean nowrap) {
+        Inflater inflater = INFLATERS[nowrap ? 1 : 0].poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    private static void releaseInflater(Inflater inflater, boolean nowrap) {
+        inflater.reset();
+        if (!INFLATERS[nowrap ? 1 : 0].offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 压缩格式
+     */
+    public enum Format {
+        /** gzip格式，与gzip命令兼容 */
+        GZIP,
+        /** 包含zlib头部的deflate格式 */
+        DEFLATE
+    }
+
+    /**
+     * 使用对象池中压缩器的压缩输出流，gzip格式时自行写入头部和尾部
+     */
+    private static class PooledDeflaterOutputStream extends DeflaterOutputStream {
+        private final boolean gzip;
+        private final int level;
+        private final CRC32 crc = new CRC32();
+        private boolean closed;
+
+        private PooledDeflaterOutputStream(OutputStream output, boolean gzip, int level) throws IOException {
+            super(output, borrowDeflater(level, gzip), FileUtils.BUFFER_SIZE);
+            this.gzip = gzip;
+            this.level = level;
+            if (gzip) {
+                // 魔数、压缩方法、标志位、修改时间、额外标志、操作系统（未知）
+                out.write(new byte[]{0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff});
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            if (gzip) {
+                crc.update(b, off, len);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!def.finished()) {
+                super.finish();
+                if (gzip) {
+                    writeInt((int) crc.getValue());
+                    writeInt((int) def.getBytesRead());
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                finish();
+            } finally {
+                releaseDeflater(def, level, gzip);
+                out.close();
+            }
+        }
+
+        private void writeInt(int value) throws IOException {
+            out.write(value);
+            out.write(value >>> 8);
+            out.write(value >>> 16);
+            out.write(value >>> 24);
+        }
+    }
+
+    /**
+     * 使用对象池中解压器的解压输入流，gzip格式时自行解析头部并校验尾部
+     */
+    private static class PooledInflaterInputStream extends InflaterInputStream {
+        private final boolean gzip;
+        private final CRC32 crc = new CRC32();
+        private boolean trailerChecked;
+        private boolean closed;
+
+        private PooledInflaterInputStream(InputStream input, boolean gzip) throws IOException {
+            super(gzip ? readHeader(input) : input, borrowInflater(gzip), FileUtils.BUFFER_SIZE);
+            this.gzip = gzip;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (gzip) {
+                if (count > 0) {
+                    crc.update(b, off, count);
+                } else if (count == -1 && !trailerChecked) {
+                    trailerChecked = true;
+                    checkTrailer();
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            releaseInflater(inf, gzip);
+            super.close();
+        }
+
+        /**
+         * 校验gzip尾部的CRC32和原始数据长度，尾部可能部分已被读入解压缓冲区
+         */
+        private void checkTrailer() throws IOException {
+            byte[] trailer = new byte[GZIP_TRAILER_SIZE];
+            int remaining = Math.min(inf.getRemaining(), GZIP_TRAILER_SIZE);
+            System.arraycopy(buf, len - inf.getRemaining(), trailer, 0, remaining);
+            for (int i = remaining; i < GZIP_TRAILER_SIZE; i++) {
+                int value = in.read();
+                if (value == -1) {
+                    throw new EOFException("gzip数据尾部不完整");
+                }
+                trailer[i] = (byte) value;
+            }
+            long expectedCrc = readInt(trailer, 0) & 0xffffffffL;
+            long expectedSize = readInt(trailer, 4) & 0xffffffffL;
+            if (expectedCrc != crc.getValue() || expectedSize != (inf.getBytesWritten() & 0xffffffffL)) {
+                throw new ZipException("gzip数据校验失败");
+            }
+        }
+
+        private static int readInt(byte[] bytes, int offset) {
+            return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8
+                    | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+        }
+
+        /**
+         * 解析并跳过gzip头部
+         */
+        private static InputStream readHeader(InputStream input) throws IOException {
+            if ((readUnsignedByte(input) | readUnsignedByte(input) << 8) != GZIP_MAGIC) {
+                throw new ZipException("不是gzip格式的数据");
+            }
+            if (readUnsignedByte(input) != Deflater.DEFLATED) {
+                throw new ZipException("不支持的gzip压缩方法");
+            }
+            int flags = readUnsignedByte(input);
+            // 修改时间、额外标志、操作系统
+            skipBytes(input, 6);
+            if ((flags & FEXTRA) == FEXTRA) {
+                skipBytes(input, readUnsignedByte(input) | readUnsignedByte(input) << 8);
+            }
+            if ((flags & FNAME) == FNAME) {
+                while (readUnsignedByte(input) != 0) {
+                    // 跳过文件名
+                }
+            }
+            if ((flags & FCOMMENT) == FCOMMENT) {
+                while (readUnsignedByte(input) != 0) {
+                    // 跳过注释
+                }
+            }
+            if ((flags & FHCRC) == FHCRC) {
+                skipBytes(input, 2);
+            }
+            return input;
+        }
+
+        private static int readUnsignedByte(InputStream input) throws IOException {
+            int value = input.read();
+            if (value == -1) {
+                throw new EOFException("gzip数据头部不完整");
+            }
+            return value;
+        }
+
+        private static void skipBytes(InputStream input, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                readUnsignedByte(input);
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.nullptr.utils.file;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基于内容寻址的去重文件存储，相同内容的文件在磁盘上只保存一份。
+ * 文件数据按SHA-256摘要保存在分片目录blobs/ab/cd/&lt;摘要&gt;下，逻辑路径通过索引映射至数据文件，
+ * 索引记录每份数据的引用数，引用数归零时删除数据文件。
+ * 索引以追加日志的形式保存在index.log中，打开存储时重放日志恢复索引
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ * @see FileUtils
+ */
+public class ContentAddressedStore implements Closeable {
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String INDEX_FILE = "index.log";
+    private static final char PUT = '+';
+    private static final char DELETE = '-';
+
+    private final Path root;
+    private final Path blobRoot;
+    private final Path tempRoot;
+    private final Path indexFile;
+    /** 逻辑路径与数据摘要的映射 */
+    private final Map<String, String> index = new HashMap<>();
+    /** 数据摘要的引用数 */
+    private final Map<String, Integer> references = new HashMap<>();
+    private Writer journal;
+
+    /**
+     * 打开存储，目录不存在时创建
+     *
+     * @param rootPath 存储根目录
+     * @throws IOException 创建目录或读取索引失败时抛出
+     */
+    public ContentAddressedStore(String rootPath) throws IOException {
+        this.root = Paths.get(FileUtils.replaceSplit(rootPath)).toAbsolutePath();
+        this.blobRoot = root.resolve("blobs");
+        this.tempRoot = root.resolve("tmp");
+        this.indexFile = root.resolve(INDEX_FILE);
+        Files.createDirectories(blobRoot);
+        Files.createDirectories(tempRoot);
+        loadIndex();
+        this.journal = openJournal();
+    }
+
+    /**
+     * 写入文件数据，相同内容已存在时只更新索引
+     *
+     * @param filePath 逻辑路径
+     * @param fileData 文件数据
+     * @return 文件数据的摘要
+     * @throws IOException 写入失败时抛出
+     */
+    public String writeFileData(String filePath, byte[] fileData) throws IOException {
+        String digest = Hex.encodeHexString(newDigest().digest(fileData));
+        if (Files.exists(getBlobPath(digest)) && commit(filePath, digest, null)) {
+            return digest;
+        }
+        Path temp = Files.createTempFile(tempRoot, digest, ".tmp");
+        try {
+            Files.write(temp, fileData);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        commit(filePath, digest, temp);
+        return digest;
+    }
+
+    /**
+     * 写入文件数据，写入临时文件的同时计算摘要，相同内容已存在时丢弃临时文件并只更新索引
+     *
+     * @param filePath 逻辑路径
+     * @param input 文件数据输入流
+     * @return 文件数据的摘要
+     * @throws IOException 写入失败时抛出
+     */
+    public String writeFileData(String filePath, InputStream input) throws IOException {
+        MessageDigest messageDigest = newDigest();
+        Path temp = Files.createTempFile(tempRoot, "blob", ".tmp");
+        try (OutputStream output = new FileOutputStream(temp.toFile())) {
+            IOUtils.copyLarge(new DigestInputStream(input, messageDigest), output,
+                    new byte[FileUtils.BUFFER_SIZE]);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        String digest = Hex.encodeHexString(messageDigest.digest());
+        commit(filePath, digest, temp);
+        return digest;
+    }
+
+    /**
+     * 读取文件数据
+     *
+     * @param filePath 逻辑路径
+     * @return 文件数据，文件不存在时返回null
+     * @throws IOException 读取失败时抛出
+     */
+    public byte[] readFileData(String filePath) throws IOException {
+        Path blob = resolve(filePath);
+        return blob == null ? null : FileUtils.readFileBytes(blob.toString());
+    }
+
+    /**
+     * 将文件数据写入输出流
+     *
+     * @param filePath 逻辑路径
+     * @param stream 输出流
+     * @return 传输的字节数
+     * @throws IOException 文件不存在或传输失败时抛出
+     */
+    public long writeFileToStream(String filePath, OutputStream stream) throws IOException {
+        Path blob = resolve(filePath);
+        if (blob == null) {
+            throw new FileNotFoundException("文件" + filePath + "不存在");
+        }
+        return FileUtils.transferFile(blob.toString(), stream);
+    }
+
+    /**
+     * 获取逻辑路径对应的数据文件路径，数据文件只读，不可直接修改
+     *
+     * @param filePath 逻辑路径
+     * @return 数据文件路径，文件不存在时返回null
+     */
+    public synchronized Path resolve(String filePath) {
+        String digest = index.get(FileUtils.replaceSplit(filePath));
+        return digest == null ? null : getBlobPath(digest);
+    }
+
+    /**
+     * 判断文件是否存在
+     *
+     * @param filePath 逻辑路径
+     * @return 存在则返回true，否则为false
+     */
+    public synchronized boolean isExist(String filePath) {
+        return index.containsKey(FileUtils.replaceSplit(filePath));
+    }
+
+    /**
+     * 删除文件，数据文件的引用数归零时删除数据文件
+     *
+     * @param filePath 逻辑路径
+     * @return 文件存在并被删除时返回true，否则为false
+     * @throws IOException 删除失败时抛出
+     */
+    public synchronized boolean delete(String filePath) throws IOException {
+        filePath = FileUtils.replaceSplit(filePath);
+        String digest = index.remove(filePath);
+        if (digest == null) {
+            return false;
+        }
+        appendJournal(DELETE + "\t" + filePath);
+        release(digest);
+        return true;
+    }
+
+    /**
+     * 获取数据文件的引用数
+     *
+     * @param digest 数据摘要
+     * @return 引用数
+     */
+    public synchronized int getReferenceCount(String digest) {
+        return references.getOrDefault(digest, 0);
+    }
+
+    /**
+     * 获取存储中的逻辑文件数
+     *
+     * @return 逻辑文件数
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * 压缩索引日志，使用当前索引的快照原子替换日志文件
+     *
+     * @throws IOException 写入失败时抛出，此时原日志文件保持不变，存储仍可继续使用
+     */
+    public synchronized void compact() throws IOException {
+        journal.close();
+        try {
+            FileUtils.replaceFile(indexFile.toString(), output -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+                for (Map.Entry<String, String> entry : index.entrySet()) {
+                    writer.write(PUT + "\t" + entry.getValue() + "\t" + entry.getKey() + "\n");
+                }
+                writer.flush();
+            }, true);
+        } finally {
+            // 替换失败时同样重新打开日志，否则之后的写入均会失败
+            journal = openJournal();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        journal.close();
+    }
+
+    /**
+     * 将临时文件提交为数据文件并更新索引，数据文件已存在时删除临时文件
+     *
+     * @param filePath 逻辑路径
+     * @param digest 数据摘要
+     * @param temp 临时文件，数据文件已存在时可为空
+     * @return 提交成功返回true，未提供临时文件且数据文件已被并发删除时返回false
+     */
+    private synchronized boolean commit(String filePath, String digest, Path temp) throws IOException {
+        filePath = FileUtils.replaceSplit(filePath);
+        if (filePath.indexOf('\n') >= 0 || filePath.indexOf('\t') >= 0) {
+            throw new IllegalArgumentException("文件路径不能包含换行符或制表符");
+        }
+        Path blob = getBlobPath(digest);
+        try {
+            if (!Files.exists(blob)) {
+                if (temp == null) {
+                    // 写入前检查时数据文件存在，但已被并发删除
+                    return false;
+                }
+                Files.createDirectories(blob.getParent());
+                FileUtils.moveAtomically(temp, blob);
+                temp = null;
+            }
+        } finally {
+            if (temp != null) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        String previous = index.put(filePath, digest);
+        references.merge(digest, 1, Integer::sum);
+        appendJournal(PUT + "\t" + digest + "\t" + filePath);
+        if (previous != null) {
+            release(previous);
+        }
+        return true;
+    }
+
+    /**
+     * 减少数据文件的引用数，归零时删除数据文件
+     */
+    private void release(String digest) throws IOException {
+        int count = references.merge(digest, -1, Integer::sum);
+        if (count <= 0) {
+            references.remove(digest);
+            Files.deleteIfExists(getBlobPath(digest));
+        }
+    }
+
+    /**
+     * 获取数据文件路径，使用摘要的前两个字节作为两级分片目录
+     */
+    private Path getBlobPath(String digest) {
+        return blobRoot.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    private void loadIndex() throws IOException {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split("\t", 3);
+                if (line.charAt(0) == PUT && fields.length == 3) {
+                    String previous = index.put(fields[2], fields[1]);
+                    references.merge(fields[1], 1, Integer::sum);
+                    if (previous != null) {
+                        references.merge(previous, -1, Integer::sum);
+                    }
+                } else if (line.charAt(0) == DELETE && fields.length == 2) {
+                    String previous = index.remove(fields[1]);
+                    if (previous != null) {
+                        references.merge(previous, -1, Integer::sum);
+                    }
+                }
+            }
+        }
+        references.values().removeIf(count -> count <= 0);
+    }
+
+    private Writer openJournal() throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(indexFile.toFile(), true), StandardCharsets.UTF_8));
+    }
+
+    private void appendJournal(String record) throws IOException {
+        journal.write(record);
+        journal.write('\n');
+        journal.flush();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package com.nullptr.utils.file;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目录监听器，基于{@link WatchService}监听目录中文件的创建、修改和删除，
+ * 文件系统不支持时退化为定时比较文件修改时间。
+ * 短时间内的多次变化会被合并，在目录静默一段时间后批量回调，回调在独立的线程池中执行。
+ * 只监听目录本身，不包含子目录
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ */
+public class DirectoryWatcher implements Closeable {
+    private static final Log logger = LogFactory.getLog(DirectoryWatcher.class);
+
+    /** 静默多久后回调，单位为毫秒 */
+    private final long debounceMillis;
+    /** 持续变化时最长多久回调一次，单位为毫秒 */
+    private final long maxDelayMillis;
+    /** 轮询方式检查目录的间隔，单位为毫秒 */
+    private final long pollIntervalMillis;
+    private final ExecutorService callbackExecutor;
+    private final boolean ownExecutor;
+    private final WatchService watchService;
+    private final Map<Path, Registration> registrations = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Registration> watchKeys = new ConcurrentHashMap<>();
+    private final Thread worker;
+    private volatile boolean closed;
+
+    /** 以下字段只在监听线程中访问 */
+    private final Set<Registration> dirty = new LinkedHashSet<>();
+    private long firstEventTime;
+    private long lastEventTime;
+    private long nextPollTime;
+
+    /**
+     * 使用默认参数创建目录监听器，静默200毫秒后回调，轮询间隔为1秒，回调在单独的守护线程中执行
+     *
+     * @throws IOException 创建失败时抛出
+     */
+    public DirectoryWatcher() throws IOException {
+        this(200, 1000, null);
+    }
+
+    /**
+     * 创建目录监听器
+     *
+     * @param debounceMillis 静默多久后回调，单位为毫秒
+     * @param pollIntervalMillis 轮询方式检查目录的间隔，单位为毫秒
+     * @param callbackExecutor 执行回调的线程池，为空时使用单独的守护线程，传入的线程池由调用方负责关闭
+     * @throws IOException 创建失败时抛出
+     */
+    public DirectoryWatcher(long debounceMillis, long pollIntervalMillis, ExecutorService callbackExecutor)
+            throws IOException {
+        if (debounceMillis < 0 || pollIntervalMillis <= 0) {
+            throw new IllegalArgumentException("debounceMillis不能为负数且pollIntervalMillis必须大于0");
+        }
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = Math.max(debounceMillis * 10, pollIntervalMillis);
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.ownExecutor = callbackExecutor == null;
+        this.callbackExecutor = ownExecutor ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "directory-watcher-callback");
+            thread.setDaemon(true);
+            return thread;
+        }) : callbackExecutor;
+        this.watchService = newWatchService();
+        this.worker = new Thread(this::run, "directory-watcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 监听目录，优先使用文件系统的变化通知
+     *
+     * @param directory 目录路径
+     * @param listener 变化回调
+     * @throws IOException 目录不存在或注册失败时抛出
+     */
+    public void register(String directory, Listener listener) throws IOException {
+        register(directory, listener, false);
+    }
+
+    /**
+     * 监听目录
+     *
+     * @param directory 目录路径
+     * @param listener 变化回调
+     * @param polling 是否强制使用轮询方式，适用于网络文件系统等无法可靠通知变化的场景
+     * @throws IOException 目录不存在或注册失败时抛出
+     */
+    public synchronized void register(String directory, Listener listener, boolean polling) throws IOException {
+        if (closed) {
+            throw new IOException("目录监听器已关闭");
+        }
+        Path path = Paths.get(FileUtils.replaceSplit(directory)).toAbsolutePath().normalize();
+        if (!Files.isDirectory(path)) {
+            throw new NotDirectoryException(path.toString());
+        }
+        Registration registration = registrations.get(path);
+        if (registration == null) {
+            registration = new Registration(path);
+            if (!polling && watchService != null) {
+                try {
+                    registration.key = path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                    watchKeys.put(registration.key, registration);
+                } catch (UnsupportedOperationException | IOException e) {
+                    logger.warn("目录" + path + "不支持变化通知，使用轮询方式监听", e);
+                }
+            }
+            if (registration.key == null) {
+                registration.snapshot = scan(path);
+            }
+            registrations.put(path, registration);
+        }
+        registration.listeners.add(listener);
+    }
+
+    /**
+     * 取消监听目录
+     *
+     * @param directory 目录路径
+     */
+    public synchronized void unregister(String directory) {
+        Path path = Paths.get(FileUtils.replaceSplit(directory)).toAbsolutePath().normalize();
+        Registration registration = registrations.remove(path);
+        if (registration != null && registration.key != null) {
+            watchKeys.remove(registration.key);
+            registration.key.cancel();
+        }
+    }
+
+    /**
+     * 关闭监听器，由监听器创建的回调线程池会一同关闭
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.debug("关闭WatchService失败", e);
+            }
+        }
+        if (ownExecutor) {
+            callbackExecutor.shutdown();
+        }
+    }
+
+    private void run() {
+        nextPollTime = System.currentTimeMillis() + pollIntervalMillis;
+        while (!closed) {
+            try {
+                long timeout = nextTimeout(System.currentTimeMillis());
+                WatchKey key = watchService == null ? null : watchService.poll(timeout, TimeUnit.MILLISECONDS);
+                if (watchService == null) {
+                    Thread.sleep(timeout);
+                }
+                while (key != null) {
+                    handle(key);
+                    key = watchService.poll();
+                }
+                long now = System.currentTimeMillis();
+                if (now >= nextPollTime) {
+                    poll();
+                    nextPollTime = now + pollIntervalMillis;
+                }
+                flushIfQuiet(System.currentTimeMillis());
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            } catch (RuntimeException e) {
+                logger.error("监听目录变化时发生错误", e);
+            }
+        }
+    }
+
+    /**
+     * 计算下一次需要处理的等待时间，不超过轮询间隔，并在回调到期时及时唤醒
+     */
+    private long nextTimeout(long now) {
+        long timeout = Math.min(pollIntervalMillis, Math.max(1, nextPollTime - now));
+        if (firstEventTime > 0) {
+            long due = Math.min(lastEventTime + debounceMillis, firstEventTime + maxDelayMillis);
+            timeout = Math.min(timeout, Math.max(1, due - now));
+        }
+        return timeout;
+    }
+
+    private void handle(WatchKey key) {
+        Registration registration = watchKeys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (registration == null) {
+                continue;
+            }
+            WatchEvent.Kind<?> kind = event.kind();
+            if (kind == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失，由回调方自行重新扫描目录
+                record(registration, registration.directory, Kind.OVERFLOW);
+            } else {
+                Path path = registration.directory.resolve((Path) event.context());
+                if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                    record(registration, path, Kind.CREATE);
+                } else if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+                    record(registration, path, Kind.MODIFY);
+                } else {
+                    record(registration, path, Kind.DELETE);
+                }
+            }
+        }
+        if (!key.reset() && registration != null) {
+            // 目录已被删除或不可访问
+            watchKeys.remove(key);
+            registrations.remove(registration.directory, registration);
+            record(registration, registration.directory, Kind.DELETE);
+        }
+    }
+
+    /**
+     * 比较轮询方式监听的目录中文件的修改时间
+     */
+    private void poll() {
+        for (Registration registration : registrations.values()) {
+            if (registration.key != null) {
+                continue;
+            }
+            Map<Path, Long> current;
+            try {
+                current = scan(registration.directory);
+            } catch (IOException e) {
+                logger.warn("扫描目录" + registration.directory + "失败", e);
+                continue;
+            }
+            Map<Path, Long> previous = registration.snapshot;
+            for (Map.Entry<Path, Long> entry : current.entrySet()) {
+                Long modified = previous.get(entry.getKey());
+                if (modified == null) {
+                    record(registration, entry.getKey(), Kind.CREATE);
+                } else if (!modified.equals(entry.getValue())) {
+                    record(registration, entry.getKey(), Kind.MODIFY);
+                }
+            }
+            for (Path path : previous.keySet()) {
+                if (!current.containsKey(path)) {
+                    record(registration, path, Kind.DELETE);
+                }
+            }
+            registration.snapshot = current;
+        }
+    }
+
+    /**
+     * 合并同一文件的多次变化：创建后修改视为创建，创建后删除视为无变化，删除后创建视为修改
+     */
+    private void record(Registration registration, Path path, Kind kind) {
+        Map<Path, Kind> pending = registration.pending;
+        Kind previous = pending.get(path);
+        if (previous == null || previous == Kind.MODIFY || kind == Kind.OVERFLOW) {
+            pending.put(path, kind);
+        } else if (previous == Kind.CREATE && kind == Kind.DELETE) {
+            pending.remove(path);
+        } else if (previous == Kind.DELETE && kind != Kind.DELETE) {
+            pending.put(path, Kind.MODIFY);
+        }
+        dirty.add(registration);
+        long now = System.currentTimeMillis();
+        if (firstEventTime == 0) {
+            firstEventTime = now;
+        }
+        lastEventTime = now;
+    }
+
+    /**
+     * 目录静默超过指定时间或持续变化超过最长等待时间时，批量回调
+     */
+    private void flushIfQuiet(long now) {
+        if (firstEventTime == 0
+                || (now - lastEventTime < debounceMillis && now - firstEventTime < maxDelayMillis)) {
+            return;
+        }
+        firstEventTime = 0;
+        for (Registration registration : dirty) {
+            flush(registration);
+        }
+        dirty.clear();
+    }
+
+    private void flush(Registration registration) {
+        if (registration.pending.isEmpty()) {
+            return;
+        }
+        List<ChangeEvent> events = new ArrayList<>(registration.pending.size());
+        for (Map.Entry<Path, Kind> entry : registration.pending.entrySet()) {
+            events.add(new ChangeEvent(entry.getKey(), entry.getValue()));
+        }
+        registration.pending.clear();
+        List<ChangeEvent> batch = Collections.unmodifiableList(events);
+        for (Listener listener : registration.listeners) {
+            callbackExecutor.execute(() -> {
+                try {
+                    listener.onChange(batch);
+                } catch (RuntimeException e) {
+                    logger.error("处理目录" + registration.directory + "的变化时发生错误", e);
+                }
+            });
+        }
+    }
+
+    private static Map<Path, Long> scan(Path directory) throws IOException {
+        Map<Path, Long> snapshot = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                try {
+                    snapshot.put(path, Files.getLastModifiedTime(path).toMillis());
+                } catch (NoSuchFileException e) {
+                    // 扫描过程中被删除的文件
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private static WatchService newWatchService() {
+        try {
+            return FileSystems.getDefault().newWatchService();
+        } catch (UnsupportedOperationException | IOException e) {
+            logger.warn("文件系统不支持变化通知，使用轮询方式监听", e);
+            return null;
+        }
+    }
+
+    /**
+     * 变化类型
+     */
+    public enum Kind {
+        /** 文件创建 */
+        CREATE,
+        /** 文件修改 */
+        MODIFY,
+        /** 文件删除 */
+        DELETE,
+        /** 变化事件丢失，需要重新扫描目录，事件路径为监听的目录 */
+        OVERFLOW
+    }
+
+    /**
+     * 文件变化事件
+     */
+    public static class ChangeEvent {
+        private final Path path;
+        private final Kind kind;
+
+        private ChangeEvent(Path path, Kind kind) {
+            this.path = path;
+            this.kind = kind;
+        }
+
+        /**
+         * 获取发生变化的文件路径
+         *
+         * @return 文件路径
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * 获取变化类型
+         *
+         * @return 变化类型
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + path;
+        }
+    }
+
+    /**
+     * 目录变化回调
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * 处理一批合并后的变化事件
+         *
+         * @param events 变化事件，按首次发生的顺序排列
+         */
+        void onChange(List<ChangeEvent> events);
+    }
+
+    /**
+     * 目录监听信息
+     */
+    private static class Registration {
+        private final Path directory;
+        private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+        /** 待回调的变化，只在监听线程中访问 */
+        private final Map<Path, Kind> pending = new LinkedHashMap<>();
+        private WatchKey key;
+        /** 轮询方式监听时的文件修改时间快照 */
+        private volatile Map<Path, Long> snapshot;
+
+        private Registration(Path directory) {
+            this.directory = directory;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.nullptr.utils.file;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量异步刷盘队列，用于高频写入文件时的组提交。
+ * 提交的临时文件由后台线程批量刷盘后原子移动至目标路径，同一批次中每个目录只刷盘一次
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ * @see FileUtils#replaceFile(String, FileUtils.DataWriter, FileSyncQueue)
+ */
+public class FileSyncQueue implements Closeable {
+    private static final Log logger = LogFactory.getLog(FileSyncQueue.class);
+
+    /** 待刷盘的文件 */
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    /** 收集同一批次文件的最长等待时间，单位为毫秒 */
+    private final long maxDelayMillis;
+    /** 每批次最多处理的文件数 */
+    private final int maxBatchSize;
+    private final Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * 使用默认参数创建刷盘队列，每批次最多等待2毫秒，最多处理256个文件
+     */
+    public FileSyncQueue() {
+        this(2, 256);
+    }
+
+    /**
+     * 创建刷盘队列
+     *
+     * @param maxDelayMillis 收集同一批次文件的最长等待时间，单位为毫秒
+     * @param maxBatchSize 每批次最多处理的文件数
+     */
+    public FileSyncQueue(long maxDelayMillis, int maxBatchSize) {
+        if (maxDelayMillis < 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxDelayMillis不能为负数且maxBatchSize必须大于0");
+        }
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.worker = new Thread(this::run, "file-sync-queue");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 提交已写入数据的临时文件，刷盘后原子移动至目标路径
+     *
+     * @param tempFile 临时文件，需与目标文件位于同一目录
+     * @param target 目标路径
+     * @return 文件替换并刷盘完成后结束的任务
+     */
+    public CompletableFuture<Path> commit(Path tempFile, Path target) {
+        Entry entry = new Entry(tempFile, target);
+        // 与关闭互斥，关闭后不会再有文件进入队列
+        synchronized (this) {
+            if (!closed) {
+                queue.add(entry);
+                return entry.future;
+            }
+        }
+        fail(entry, new IOException("刷盘队列已关闭"));
+        return entry.future;
+    }
+
+    /**
+     * 获取等待刷盘的文件数
+     *
+     * @return 等待刷盘的文件数
+     */
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * 关闭刷盘队列，已提交的文件会在关闭前完成刷盘
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 后台线程被中断时未处理的文件
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            fail(entry, new IOException("刷盘队列已关闭"));
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 等待一小段时间以收集更多文件，组成同一批次
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Entry next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                synchronized (this) {
+                    closed = true;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 刷盘并移动同一批次的文件，再对涉及的目录各刷盘一次
+     *
+     * @param batch 同一批次的文件
+     */
+    private void flush(List<Entry> batch) {
+        Set<Path> directories = new LinkedHashSet<>();
+        List<Entry> moved = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            try (FileChannel channel = FileChannel.open(entry.tempFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            } catch (IOException e) {
+                fail(entry, e);
+                continue;
+            }
+            try {
+                FileUtils.moveAtomically(entry.tempFile, entry.target);
+            } catch (IOException e) {
+                fail(entry, e);
+                continue;
+            }
+            directories.add(entry.target.getParent());
+            moved.add(entry);
+        }
+        for (Path directory : directories) {
+            FileUtils.syncDirectory(directory);
+        }
+        for (Entry entry : moved) {
+            entry.future.complete(entry.target);
+        }
+    }
+
+    private void fail(Entry entry, IOException e) {
+        logger.error("文件" + entry.target + "刷盘失败", e);
+        try {
+            Files.deleteIfExists(entry.tempFile);
+        } catch (IOException ignored) {
+            // 临时文件删除失败不影响结果
+        }
+        entry.future.completeExceptionally(e);
+    }
+
+    /**
+     * 待刷盘的文件
+     */
+    private static class Entry {
+        private final Path tempFile;
+        private final Path target;
+        private final CompletableFuture<Path> future = new CompletableFuture<>();
+
+        private Entry(Path tempFile, Path target) {
+            this.tempFile = tempFile;
+            this.target = target;
+        }
+    }
+}
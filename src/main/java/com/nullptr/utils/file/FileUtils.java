@@ -1,16 +1,33 @@
 package com.nullptr.utils.file;
 
 import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.codec.digest.Md5Crypt;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.*;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
-import java.util.UUID;
-import java.util.regex.Matcher;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 文件处理工具，主要包含写入和读取文件数据
@@ -27,6 +44,15 @@ import java.util.regex.Matcher;
  * @version 1.8 2020-9-9 修改获取UUID文件名方法，内部增加将传入的文件路径转换为文件名操作
  * @version 1.9 2020-9-10 增加获取文件类型，获取文件名称（不包含类型名称），修改文件名称（不修改类型），修改文件类型等方法
  * @version 1.10 2020-9-24 新增从输入流写入至文件方法, 根据字符编码获取文件数据方法，修复路径分隔符转换失败bug
+ * @version 1.11 2026-10-18 写入文件数据到流改为流式传输，新增基于FileChannel.transferTo的零拷贝传输方法
+ * @version 1.12 2026-10-18 修复读取文件数据不完整的bug，新增按文件大小选择读取方式及按范围读取文件数据的方法
+ * @version 1.13 2026-10-18 新增基于流的Base64编码、解码方法，编码文件数据可分段处理而无需整体加载至内存
+ * @version 1.14 2026-10-18 写入加密文件信息改为先写入临时文件再原子替换原始文件，新增可选的同步刷盘及批量异步刷盘方法
+ * @version 1.15 2026-10-18 新增读取失败时抛出异常的读取文件数据方法，供批量文件处理使用
+ * @version 1.16 2026-10-18 路径处理方法改为逐字符扫描，不再使用正则表达式，新增基于StringBuilder的路径拼接方法
+ * @version 1.17 2026-10-18 获取UUID文件名改为使用无锁的唯一文件名生成器，新增获取短唯一文件名方法
+ * @version 1.18 2026-10-18 新增压缩写入文件数据及自动识别压缩格式读取文件数据的方法
+ * @version 1.19 2026-10-18 零拷贝传输拒绝非阻塞通道，目标通道不再接收数据时抛出异常
  * @since 1.0 2020-8-12
  */
 public class FileUtils extends org.apache.commons.io.FileUtils {
@@ -37,6 +63,16 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
     public static final String SPLIT = "/";
     /** 文件类型分隔符 */
     public static final String TYPE_SPLIT = ".";
+    /** 流式传输时使用的缓冲区大小 */
+    public static final int BUFFER_SIZE = 64 * 1024;
+    /** 按线程复用的传输缓冲区，传输时占用的堆内存与文件大小无关 */
+    private static final ThreadLocal<byte[]> TRANSFER_BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+    /** 读取数据超过此大小时使用内存映射方式读取 */
+    public static final long MAPPED_THRESHOLD = 8 * 1024 * 1024;
+    /** Base64分段编码时每段的字节数，需为3的倍数以保证分段编码结果可直接拼接 */
+    private static final int ENCODE_CHUNK_SIZE = 48 * 1024;
+    /** Base64分段解码时每次读取的字符数 */
+    private static final int DECODE_CHUNK_SIZE = 64 * 1024;
 
     /** 构造方法私有化，防止生成实例 */
     protected FileUtils() {}
@@ -64,6 +100,25 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
         return writeFileData(filePath, BASE_64.decode(encodeFileData));
     }
 
+    /**
+     * 写入加密文件信息，会将原始文件在磁盘上替换为加密文件，编码数据按段解码写入
+     *
+     * @param filePath 原始文件相对路径，如/temp/senddoc/2020828/xxx.docx
+     * @param encodeFileData base64编码的文件数据字符流
+     * @since 1.13
+     */
+    public static boolean writeFileData(String filePath, Reader encodeFileData) {
+        filePath = FileUtils.replaceSplit(filePath);
+        try {
+            replaceFile(filePath, output -> decodeBase64(encodeFileData, output), false);
+        } catch (IOException e) {
+            logger.error("向文件" + getFileName(filePath) +
+                    "写入数据时失败, 文件路径为" + filePath, e);
+            return false;
+        }
+        return true;
+    }
+
     /**
      * 写入加密文件信息，会将原始文件在磁盘上替换为加密文件
      *
@@ -85,36 +140,191 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
      * @since 1.6
      */
     public static boolean writeFileData(String filePath, byte[] fileData) {
+        return writeFileData(filePath, fileData, false);
+    }
+
+    /**
+     * 写入加密文件信息，数据先写入同目录下的临时文件，再原子替换原始文件，
+     * 写入过程中发生错误时原始文件保持不变，读取方也不会看到文件缺失
+     *
+     * @param filePath 原始文件相对路径，如/temp/senddoc/2020828/xxx.docx
+     * @param fileData 加密文件数据流
+     * @param sync 是否在替换前后将数据和目录同步刷新至磁盘
+     * @since 1.14
+     */
+    public static boolean writeFileData(String filePath, byte[] fileData, boolean sync) {
         filePath = FileUtils.replaceSplit(filePath);
-        // 删除原始文件
-        if (!FileUtils.deleteQuietly(new File(filePath))) {
-            // 失败则抛出异常
-            return false;
-        }
-        // 获取文件实例
-        File file = new File(filePath);
-        // 向文件中写入加密数据
         try {
-            FileUtils.writeByteArrayToFile(file, fileData);
+            replaceFile(filePath, output -> output.write(fileData), sync);
         } catch (IOException e) {
             logger.error("向文件" + getFileName(filePath) +
-                    "写入数据时失败, 文件路径为" + filePath);
+                    "写入数据时失败, 文件路径为" + filePath, e);
             return false;
         }
         return true;
     }
 
     /**
-     * 使用UUID和当前时间生成编码后的文件名称，
+     * 原子替换文件，数据先写入同目录下的临时文件，再移动至目标路径，
+     * 文件系统不支持原子移动时退化为覆盖移动
+     *
+     * @param filePath 目标文件路径
+     * @param writer 数据写入接口
+     * @param sync 是否在移动前同步刷新文件数据，并在移动后同步刷新目录
+     * @throws IOException 写入或移动失败时抛出，此时临时文件会被删除
+     * @since 1.14
+     */
+    public static void replaceFile(String filePath, DataWriter writer, boolean sync) throws IOException {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        Path temp = writeTempFile(target, writer, sync);
+        try {
+            moveAtomically(temp, target);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        if (sync) {
+            syncDirectory(target.getParent());
+        }
+    }
+
+    /**
+     * 原子替换文件，数据写入临时文件后交由刷盘队列批量完成刷盘、移动和目录刷盘，
+     * 同一批次中同一目录只会刷盘一次
+     *
+     * @param filePath 目标文件路径
+     * @param writer 数据写入接口
+     * @param queue 刷盘队列
+     * @return 文件替换并刷盘完成后结束的任务
+     * @since 1.14
+     */
+    public static CompletableFuture<Path> replaceFile(String filePath, DataWriter writer, FileSyncQueue queue) {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        try {
+            return queue.commit(writeTempFile(target, writer, false), target);
+        } catch (IOException e) {
+            CompletableFuture<Path> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * 在目标文件所在目录中创建临时文件并写入数据。目标文件已存在时临时文件沿用其POSIX权限，
+     * 否则与直接创建文件相同，使用受umask限制的默认权限，替换后文件权限不会改变
+     *
+     * @param target 目标文件
+     * @param writer 数据写入接口
+     * @param sync 是否同步刷新文件数据
+     * @return 临时文件
+     * @throws IOException 写入失败时抛出，此时临时文件会被删除
+     */
+    private static Path writeTempFile(Path target, DataWriter writer, boolean sync) throws IOException {
+        Path parent = target.getParent();
+        Files.createDirectories(parent);
+        Path temp = createTempFile(parent, "." + target.getFileName());
+        try (FileOutputStream output = new FileOutputStream(temp.toFile())) {
+            copyPermissions(target, temp);
+            writer.write(output);
+            output.flush();
+            if (sync) {
+                output.getChannel().force(true);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    /**
+     * 创建临时文件，Files.createTempFile创建的文件权限固定为仅所有者可读写，因此使用默认权限创建
+     */
+    private static Path createTempFile(Path directory, String prefix) throws IOException {
+        while (true) {
+            Path temp = directory.resolve(prefix + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(temp);
+            } catch (FileAlreadyExistsException e) {
+                // 文件名重复时重新生成
+            }
+        }
+    }
+
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        try {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        } catch (NoSuchFileException e) {
+            // 目标文件不存在，使用默认权限
+        } catch (UnsupportedOperationException e) {
+            // 文件系统不支持POSIX权限
+        }
+    }
+
+    /**
+     * 将源文件原子移动至目标路径，文件系统不支持原子移动时退化为覆盖移动
+     *
+     * @param source 源文件
+     * @param target 目标路径
+     * @throws IOException 移动失败时抛出
+     */
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 同步刷新目录，使目录中的文件创建、重命名持久化，不支持打开目录的平台（如Windows）会忽略此操作
+     *
+     * @param directory 目录
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("刷新目录" + directory + "失败", e);
+        }
+    }
+
+    /**
+     * 生成唯一的文件名称，名称部分长度与原先使用UUID和Md5Crypt生成的名称一致
      *
      * @param filePath 原文件路径
      * @return 编码后的文件名称
      * @since 1.1
+     * @see UniqueNameGenerator
      */
     public static String getUUIDFileName(String filePath) {
-        String uuid = UUID.randomUUID().toString() + System.currentTimeMillis();
-        String fileType = getFileType(filePath);
-        return Md5Crypt.md5Crypt(uuid.getBytes()) + TYPE_SPLIT + fileType;
+        return getUniqueFileName(filePath, UniqueNameGenerator.LEGACY_LENGTH);
+    }
+
+    /**
+     * 生成最短的唯一文件名称，名称按生成时间有序
+     *
+     * @param filePath 原文件路径
+     * @return 唯一文件名称
+     * @since 1.17
+     * @see UniqueNameGenerator
+     */
+    public static String getUniqueFileName(String filePath) {
+        return getUniqueFileName(filePath, UniqueNameGenerator.MIN_LENGTH);
+    }
+
+    /**
+     * 生成指定名称长度的唯一文件名称，并保留原文件的类型
+     *
+     * @param filePath 原文件路径
+     * @param length 名称部分长度，不包含文件类型，不能小于{@link UniqueNameGenerator#MIN_LENGTH}
+     * @return 唯一文件名称
+     * @since 1.17
+     */
+    public static String getUniqueFileName(String filePath, int length) {
+        StringBuilder builder = new StringBuilder(length + 8);
+        UniqueNameGenerator.getInstance().appendTo(builder, length).append('.');
+        return appendFileType(builder, filePath).toString();
     }
 
     /**
@@ -152,8 +362,89 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
      * @since 1.10
      */
     public static void writeFileToStream(OutputStream stream, String fileName) {
-        byte[] fileData = readFileData(fileName);
-        writeToStream(stream, fileData);
+        try {
+            transferFile(fileName, stream);
+        } catch (IOException e) {
+            logger.error("向流中写入文件" + fileName + "时发生错误", e);
+        }
+    }
+
+    /**
+     * 将文件数据流式传输至输出流，输出流为文件输出流时使用零拷贝传输，
+     * 否则使用固定大小的复用缓冲区分段写入，不会将整个文件读入内存
+     *
+     * @param fileName 文件名称
+     * @param stream 输出流
+     * @return 传输的字节数
+     * @throws IOException 读取文件或写入流失败时抛出
+     * @since 1.11
+     */
+    public static long transferFile(String fileName, OutputStream stream) throws IOException {
+        if (stream instanceof FileOutputStream) {
+            stream.flush();
+            return transferFile(fileName, ((FileOutputStream) stream).getChannel());
+        }
+        try (InputStream input = new FileInputStream(fileName)) {
+            byte[] buffer = TRANSFER_BUFFER.get();
+            long count = 0;
+            int length;
+            while ((length = input.read(buffer)) != -1) {
+                stream.write(buffer, 0, length);
+                count += length;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 使用{@link FileChannel#transferTo(long, long, WritableByteChannel)}将文件数据零拷贝传输至通道，
+     * 目标通道需为阻塞模式
+     *
+     * @param fileName 文件名称
+     * @param target 目标通道
+     * @return 传输的字节数
+     * @throws IOException 读取文件或写入通道失败，或目标通道不再接收数据时抛出
+     * @throws IllegalBlockingModeException 目标通道为非阻塞模式时抛出
+     * @since 1.11
+     */
+    public static long transferFile(String fileName, WritableByteChannel target) throws IOException {
+        // 非阻塞通道在缓冲区已满时不写入任何数据，传输会提前结束
+        if (target instanceof SelectableChannel && !((SelectableChannel) target).isBlocking()) {
+            throw new IllegalBlockingModeException();
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long count = channel.transferTo(position, size - position, target);
+                if (count <= 0) {
+                    if (channel.size() <= position) {
+                        // 文件在传输过程中被截断
+                        break;
+                    }
+                    throw new IOException("传输文件" + fileName + "失败，目标通道未写入数据，已传输" + position + "字节");
+                }
+                position += count;
+            }
+            return position;
+        }
+    }
+
+    /**
+     * 将文件数据传输至套接字，套接字存在阻塞模式的通道时使用零拷贝传输，否则使用流式传输
+     *
+     * @param fileName 文件名称
+     * @param socket 套接字
+     * @return 传输的字节数
+     * @throws IOException 读取文件或写入套接字失败时抛出
+     * @since 1.11
+     */
+    public static long transferFile(String fileName, Socket socket) throws IOException {
+        SocketChannel channel = socket.getChannel();
+        if (channel != null && channel.isBlocking()) {
+            return transferFile(fileName, channel);
+        }
+        return transferFile(fileName, socket.getOutputStream());
     }
 
     /**
@@ -167,6 +458,21 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
        writeToStream(stream, BASE_64.decode(encodeFileData));
     }
 
+    /**
+     * 写入文件数据到流之中，编码数据按段解码写入
+     *
+     * @param stream 输出流
+     * @param encodeFileData 文件数据编码字符流
+     * @since 1.13
+     */
+    public static void writeToStream(OutputStream stream, Reader encodeFileData) {
+        try {
+            decodeBase64(encodeFileData, stream);
+        } catch (IOException e) {
+            logger.error("向流中写入数据时发生错误", e);
+        }
+    }
+
     /**
      * 写入文件数据
      *
@@ -178,6 +484,21 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
        writeToFile(fileName, BASE_64.decode(encodeFileData));
     }
 
+    /**
+     * 写入文件数据，编码数据按段解码写入
+     *
+     * @param fileName 文件名
+     * @param encodeFileData 文件数据编码字符流
+     * @since 1.13
+     */
+    public static void writeToFile(String fileName, Reader encodeFileData) {
+        try (OutputStream output = new FileOutputStream(fileName, false)) {
+            decodeBase64(encodeFileData, output);
+        } catch (IOException e) {
+            logger.error("写入文件" + fileName + "时发生错误", e);
+        }
+    }
+
     /**
      * 写入文件数据
      *
@@ -195,6 +516,42 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
         }
     }
 
+    /**
+     * 压缩写入文件数据
+     *
+     * @param fileName 文件名
+     * @param fileData 文件数据流
+     * @param format 压缩格式
+     * @param level 压缩级别，0~9或-1（默认级别）
+     * @since 1.18
+     * @see CompressionUtils
+     */
+    public static void writeToFile(String fileName, byte[] fileData, CompressionUtils.Format format, int level) {
+        try (OutputStream output = CompressionUtils.compress(new FileOutputStream(fileName, false), format, level)) {
+            output.write(fileData);
+        } catch (Exception e) {
+            logger.error("写入文件" + fileName + "时发生错误", e);
+        }
+    }
+
+    /**
+     * 压缩写入文件数据
+     *
+     * @param fileName 文件名
+     * @param input 输入流
+     * @param format 压缩格式
+     * @param level 压缩级别，0~9或-1（默认级别）
+     * @since 1.18
+     * @see CompressionUtils
+     */
+    public static void writeToFile(String fileName, InputStream input, CompressionUtils.Format format, int level) {
+        try (OutputStream output = CompressionUtils.compress(new FileOutputStream(fileName, false), format, level)) {
+            IOUtils.copyLarge(input, output, TRANSFER_BUFFER.get());
+        } catch (IOException e) {
+            logger.error("写入文件" + fileName + "时发生错误", e);
+        }
+    }
+
     /**
      * 写入文件数据
      *
@@ -242,11 +599,41 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
      * @since 1.2
      */
     public static byte[] readFileData(String fileName) {
-        File file = new File(fileName);
-        try (InputStream inputStream = new FileInputStream(file)) {
-            byte[] dataBytes = new byte[inputStream.available()];
-            inputStream.read(dataBytes);
-            return dataBytes;
+        try {
+            return readFileBytes(fileName);
+        } catch (NoSuchFileException e) {
+            logger.error("文件" + fileName + "不存在", e);
+        } catch (IOException e) {
+            logger.error("读取文件" + fileName + "失败", e);
+        }
+        return null;
+    }
+
+    /**
+     * 读取文件数据流，读取失败时抛出异常
+     *
+     * @param fileName 待读取的文件名
+     * @return 文件数据流
+     * @throws IOException 读取文件失败时抛出
+     * @since 1.15
+     */
+    public static byte[] readFileBytes(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            return readFully(channel);
+        }
+    }
+
+    /**
+     * 读取文件数据流，文件为gzip或deflate格式时自动解压，否则读取原始数据
+     *
+     * @param fileName 待读取的文件名
+     * @return 解压后的文件数据流
+     * @since 1.18
+     * @see CompressionUtils
+     */
+    public static byte[] readDecompressedFileData(String fileName) {
+        try (InputStream input = openDecompressedStream(fileName)) {
+            return IOUtils.toByteArray(input);
         } catch (FileNotFoundException e) {
             logger.error("文件" + fileName + "不存在", e);
         } catch (IOException e) {
@@ -255,6 +642,115 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
         return null;
     }
 
+    /**
+     * 打开文件输入流，文件为gzip或deflate格式时返回解压输入流，否则返回原始数据输入流
+     *
+     * @param fileName 待读取的文件名
+     * @return 文件输入流
+     * @throws IOException 打开文件或读取压缩头部失败时抛出
+     * @since 1.18
+     */
+    public static InputStream openDecompressedStream(String fileName) throws IOException {
+        InputStream input = new FileInputStream(fileName);
+        try {
+            return CompressionUtils.decompress(input);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 读取文件数据，文件大小不超过{@link #MAPPED_THRESHOLD}时读取至堆内存，
+     * 否则使用只读内存映射，映射的数据不占用堆内存
+     *
+     * @param fileName 待读取的文件名
+     * @return 文件数据缓冲区
+     * @throws IOException 读取文件失败或文件超过2GB时抛出
+     * @since 1.12
+     */
+    public static ByteBuffer readFileBuffer(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= MAPPED_THRESHOLD) {
+                return ByteBuffer.wrap(readFully(channel));
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("文件" + fileName + "大小超过2GB，请按范围读取");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * 按范围读取文件数据，读取长度不超过{@link #MAPPED_THRESHOLD}时读取至堆内存，否则使用只读内存映射，
+     * 范围超出文件末尾时只返回实际存在的数据
+     *
+     * @param fileName 待读取的文件名
+     * @param offset 起始位置
+     * @param length 读取长度
+     * @return 文件数据缓冲区
+     * @throws IOException 读取文件失败时抛出
+     * @since 1.12
+     */
+    public static ByteBuffer readFileBuffer(String fileName, long offset, int length) throws IOException {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("offset和length不能为负数");
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            int realLength = (int) Math.max(0, Math.min(length, channel.size() - offset));
+            if (realLength > MAPPED_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, offset, realLength);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(realLength);
+            readFully(channel, buffer, offset);
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * 读取通道中的全部数据，按通道大小预先分配数组，无法获取大小时（如管道）按流读取
+     *
+     * @param channel 文件通道
+     * @return 读取到的数据
+     * @throws IOException 读取失败时抛出
+     */
+    private static byte[] readFully(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("文件大小超过2GB，请按范围读取");
+        }
+        if (size == 0) {
+            return IOUtils.toByteArray(Channels.newInputStream(channel));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        readFully(channel, buffer, 0);
+        if (buffer.hasRemaining()) {
+            // 文件在读取过程中被截断
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 从指定位置开始读取数据直至缓冲区填满或到达文件末尾
+     *
+     * @param channel 文件通道
+     * @param buffer 目标缓冲区
+     * @param position 起始位置
+     * @throws IOException 读取失败时抛出
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position);
+            if (count < 0) {
+                break;
+            }
+            position += count;
+        }
+    }
+
     /**
      * 读取文件数据流
      *
@@ -295,6 +791,136 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
         return BASE_64.encodeAsString(fileData);
     }
 
+    /**
+     * 读取文件数据并按段编码写入字符流，不会将整个文件或编码字符串加载至内存
+     *
+     * @param fileName 待读取的文件名
+     * @param writer 编码字符串写入的字符流
+     * @since 1.13
+     */
+    public static void readEncodeFileData(String fileName, Writer writer) {
+        try (InputStream input = new FileInputStream(fileName)) {
+            encodeBase64(input, writer);
+        } catch (FileNotFoundException e) {
+            logger.error("文件" + fileName + "不存在", e);
+        } catch (IOException e) {
+            logger.error("读取文件" + fileName + "失败", e);
+        }
+    }
+
+    /**
+     * 将输入流中的数据按段进行Base64编码并写入字符流
+     *
+     * @param input 原始数据输入流
+     * @param writer 编码字符串写入的字符流
+     * @return 编码后的字符数
+     * @throws IOException 读取或写入失败时抛出
+     * @since 1.13
+     */
+    public static long encodeBase64(InputStream input, Writer writer) throws IOException {
+        byte[] buffer = new byte[ENCODE_CHUNK_SIZE];
+        long count = 0;
+        int length;
+        while ((length = IOUtils.read(input, buffer)) > 0) {
+            byte[] chunk = length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+            String encoded = BASE_64.encodeAsString(chunk);
+            writer.write(encoded);
+            count += encoded.length();
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * 将输入流中的数据按段进行Base64编码并以ASCII字节写入输出流
+     *
+     * @param input 原始数据输入流
+     * @param output 编码数据输出流
+     * @return 编码后的字节数
+     * @throws IOException 读取或写入失败时抛出
+     * @since 1.13
+     */
+    public static long encodeBase64(InputStream input, OutputStream output) throws IOException {
+        byte[] buffer = new byte[ENCODE_CHUNK_SIZE];
+        long count = 0;
+        int length;
+        while ((length = IOUtils.read(input, buffer)) > 0) {
+            byte[] chunk = length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+            byte[] encoded = BASE_64.encode(chunk);
+            output.write(encoded);
+            count += encoded.length;
+        }
+        output.flush();
+        return count;
+    }
+
+    /**
+     * 将字符流中的Base64编码数据按段解码并写入输出流，编码数据中的空白字符会被忽略
+     *
+     * @param reader 编码数据字符流
+     * @param output 解码数据输出流
+     * @return 解码后的字节数
+     * @throws IOException 读取或写入失败时抛出
+     * @since 1.13
+     */
+    public static long decodeBase64(Reader reader, OutputStream output) throws IOException {
+        char[] chars = new char[DECODE_CHUNK_SIZE];
+        // 待解码的编码字节，末尾不足4个字符的部分留待下一段解码
+        byte[] pending = new byte[DECODE_CHUNK_SIZE + 3];
+        int pendingLength = 0;
+        long count = 0;
+        int length;
+        while ((length = reader.read(chars)) != -1) {
+            for (int i = 0; i < length; i++) {
+                if (!Character.isWhitespace(chars[i])) {
+                    pending[pendingLength++] = (byte) chars[i];
+                }
+            }
+            int decodable = pendingLength - pendingLength % 4;
+            if (decodable > 0) {
+                byte[] decoded = BASE_64.decode(Arrays.copyOf(pending, decodable));
+                output.write(decoded);
+                count += decoded.length;
+                pendingLength -= decodable;
+                System.arraycopy(pending, decodable, pending, 0, pendingLength);
+            }
+        }
+        if (pendingLength > 0) {
+            // 末尾缺少填充字符的编码数据
+            byte[] decoded = BASE_64.decode(Arrays.copyOf(pending, pendingLength));
+            output.write(decoded);
+            count += decoded.length;
+        }
+        output.flush();
+        return count;
+    }
+
+    /**
+     * 将ASCII编码的Base64数据流按段解码并写入输出流
+     *
+     * @param input 编码数据输入流
+     * @param output 解码数据输出流
+     * @return 解码后的字节数
+     * @throws IOException 读取或写入失败时抛出
+     * @since 1.13
+     */
+    public static long decodeBase64(InputStream input, OutputStream output) throws IOException {
+        return decodeBase64(new InputStreamReader(input, StandardCharsets.US_ASCII), output);
+    }
+
+    /**
+     * 将字符流中的Base64编码数据按段解码并写入通道
+     *
+     * @param reader 编码数据字符流
+     * @param channel 解码数据写入的通道
+     * @return 解码后的字节数
+     * @throws IOException 读取或写入失败时抛出
+     * @since 1.13
+     */
+    public static long decodeBase64(Reader reader, WritableByteChannel channel) throws IOException {
+        return decodeBase64(reader, Channels.newOutputStream(channel));
+    }
+
     /**
      * 获取文件名称
      *
@@ -303,8 +929,7 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
      * @since 1.4
      */
     public static String getFileName(String filePath) {
-        filePath = replaceSplit(filePath);
-        int index = filePath.lastIndexOf(SPLIT);
+        int index = lastSplitIndex(filePath);
         return filePath.substring(index + 1);
     }
 
@@ -317,11 +942,8 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
      * @since 1.4
      */
     public static String getAbsolutePath(String parentPath, String filePath) {
-        parentPath = replaceSplit(parentPath);
-        filePath = replaceSplit(filePath);
-
-        // 判断是否具备相对路径
-        return filePath.startsWith(SPLIT) ? parentPath + filePath : parentPath + SPLIT + filePath;
+        StringBuilder builder = new StringBuilder(parentPath.length() + filePath.length() + 1);
+        return appendAbsolutePath(builder, parentPath, filePath).toString();
     }
 
     /**
@@ -332,9 +954,8 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
      * @since 1.5
      */
     public static String getParentPath(String filePath) {
-        filePath = replaceSplit(filePath);
-        int index = filePath.lastIndexOf(SPLIT);
-        return filePath.substring(0, index);
+        int index = lastSplitIndex(filePath);
+        return replaceSplit(filePath.substring(0, index));
     }
 
     /**
@@ -343,11 +964,142 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
      * c:/file/userFiles/temp/test.doc
      *
      * @param filePath 文件路径
-     * @return 替换后的文件路径
+     * @return 替换后的文件路径，不包含\\时返回原字符串
      * @since 1.5
      */
     public static String replaceSplit(String filePath) {
-        return filePath.replaceAll(Matcher.quoteReplacement("\\"), SPLIT);
+        return filePath.replace('\\', '/');
+    }
+
+    /**
+     * 在原字符序列上将路径分隔符\\替换为/
+     *
+     * @param filePath 文件路径
+     * @return 传入的字符序列
+     * @since 1.16
+     */
+    public static StringBuilder replaceSplit(StringBuilder filePath) {
+        for (int i = 0, length = filePath.length(); i < length; i++) {
+            if (filePath.charAt(i) == '\\') {
+                filePath.setCharAt(i, '/');
+            }
+        }
+        return filePath;
+    }
+
+    /**
+     * 将父路径与文件路径拼接后追加至字符序列，拼接时将路径分隔符\\替换为/，不产生中间字符串
+     *
+     * @param builder 目标字符序列
+     * @param parentPath 父路径
+     * @param filePath 文件路径
+     * @return 传入的目标字符序列
+     * @since 1.16
+     */
+    public static StringBuilder appendAbsolutePath(StringBuilder builder, CharSequence parentPath,
+                                                   CharSequence filePath) {
+        appendReplaceSplit(builder, parentPath, 0, parentPath.length());
+        // 判断是否具备相对路径
+        if (filePath.length() == 0 || !isSplit(filePath.charAt(0))) {
+            builder.append('/');
+        }
+        return appendReplaceSplit(builder, filePath, 0, filePath.length());
+    }
+
+    /**
+     * 将文件名称追加至字符序列
+     *
+     * @param builder 目标字符序列
+     * @param filePath 文件路径
+     * @return 传入的目标字符序列
+     * @since 1.16
+     */
+    public static StringBuilder appendFileName(StringBuilder builder, CharSequence filePath) {
+        return builder.append(filePath, lastSplitIndex(filePath) + 1, filePath.length());
+    }
+
+    /**
+     * 将文件父路径追加至字符序列，追加时将路径分隔符\\替换为/
+     *
+     * @param builder 目标字符序列
+     * @param filePath 文件路径
+     * @return 传入的目标字符序列
+     * @since 1.16
+     */
+    public static StringBuilder appendParentPath(StringBuilder builder, CharSequence filePath) {
+        int index = lastSplitIndex(filePath);
+        if (index < 0) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return appendReplaceSplit(builder, filePath, 0, index);
+    }
+
+    /**
+     * 将文件类型追加至字符序列，如123.txt将追加txt
+     *
+     * @param builder 目标字符序列
+     * @param fileName 文件名
+     * @return 传入的目标字符序列
+     * @since 1.16
+     */
+    public static StringBuilder appendFileType(StringBuilder builder, CharSequence fileName) {
+        return builder.append(fileName, lastIndexOf(fileName, '.') + 1, fileName.length());
+    }
+
+    /**
+     * 将不包含文件类型的文件名称追加至字符序列，如123.txt将追加123
+     *
+     * @param builder 目标字符序列
+     * @param fileName 文件名
+     * @return 传入的目标字符序列
+     * @since 1.16
+     */
+    public static StringBuilder appendFileNameWithoutType(StringBuilder builder, CharSequence fileName) {
+        int index = lastIndexOf(fileName, '.');
+        if (index < 0) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return builder.append(fileName, 0, index);
+    }
+
+    /**
+     * 获取路径中最后一个路径分隔符（/或\\）的位置
+     *
+     * @param filePath 文件路径
+     * @return 最后一个路径分隔符的位置，不存在时返回-1
+     * @since 1.16
+     */
+    public static int lastSplitIndex(CharSequence filePath) {
+        for (int i = filePath.length() - 1; i >= 0; i--) {
+            if (isSplit(filePath.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 将字符序列的指定范围追加至目标字符序列，追加时将路径分隔符\\替换为/
+     */
+    private static StringBuilder appendReplaceSplit(StringBuilder builder, CharSequence path, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            builder.append(c == '\\' ? '/' : c);
+        }
+        return builder;
+    }
+
+    private static int lastIndexOf(CharSequence sequence, char target) {
+        for (int i = sequence.length() - 1; i >= 0; i--) {
+            if (sequence.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSplit(char c) {
+        return c == '/' || c == '\\';
     }
 
     /**
@@ -376,12 +1128,15 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
      * @since 1.9
      */
     public static String changeFileName(String parentPath, String fileName, String newFileName) {
-        if (StringUtils.isNotEmpty(parentPath)) {
+        if (StringUtils.isEmpty(parentPath)) {
+            return newFileName + TYPE_SPLIT + getFileType(fileName);
+        }
+        if (fileName.indexOf('.') < 0) {
+            // 文件名不包含类型时，类型从拼接后的完整路径中获取
             fileName = getAbsolutePath(parentPath, fileName);
-            newFileName = getAbsolutePath(parentPath, newFileName);
         }
-        String fileType = getFileType(fileName);
-        return newFileName + TYPE_SPLIT + fileType;
+        StringBuilder builder = appendAbsolutePath(new StringBuilder(), parentPath, newFileName).append('.');
+        return appendReplaceSplit(builder, fileName, fileName.lastIndexOf('.') + 1, fileName.length()).toString();
     }
 
     /**
@@ -476,4 +1231,22 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
             deleteIfExist(filePath);
         }
     }
- }
\ No newline at end of file
+
+    /**
+     * 数据写入接口
+     *
+     * @author majl
+     * @version 1.0 2026-10-18
+     * @since 1.14
+     */
+    @FunctionalInterface
+    public interface DataWriter {
+        /**
+         * 向输出流写入数据
+         *
+         * @param output 输出流
+         * @throws IOException 写入失败时抛出
+         */
+        void write(OutputStream output) throws IOException;
+    }
+}
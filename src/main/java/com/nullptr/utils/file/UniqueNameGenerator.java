@@ -0,0 +1,121 @@
+package com.nullptr.utils.file;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 唯一文件名生成器，生成的名称由时间戳、序列号和节点标识组成，按生成时间有序，
+ * 使用小写字母和数字编码，可直接用于URL及大小写不敏感的文件系统。
+ * 生成过程无锁，多线程并发生成时只通过CAS保证序列号递增
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ */
+public class UniqueNameGenerator {
+    /** 编码字符，按ASCII码顺序排列，保证编码后的名称与数值顺序一致 */
+    private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuv".toCharArray();
+    /** 每毫秒可生成的序列号位数 */
+    private static final int SEQUENCE_BITS = 20;
+    /** 节点标识位数 */
+    private static final int NODE_BITS = 48;
+    /** 时间戳与序列号部分的编码长度 */
+    private static final int STATE_LENGTH = 13;
+    /** 节点标识部分的编码长度 */
+    private static final int NODE_LENGTH = 10;
+    /** 名称的最小长度 */
+    public static final int MIN_LENGTH = STATE_LENGTH + NODE_LENGTH;
+    /** 与原先使用Md5Crypt生成的名称相同的长度 */
+    public static final int LEGACY_LENGTH = 34;
+
+    private final AtomicLong state = new AtomicLong();
+    private final long nodeId;
+
+    /**
+     * 创建生成器
+     *
+     * @param nodeId 节点标识，只使用低48位，不同进程应使用不同的节点标识
+     */
+    public UniqueNameGenerator(long nodeId) {
+        this.nodeId = nodeId & ((1L << NODE_BITS) - 1);
+    }
+
+    /**
+     * 获取默认生成器，节点标识在首次使用时随机生成
+     *
+     * @return 默认生成器
+     */
+    public static UniqueNameGenerator getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 生成最小长度的名称
+     *
+     * @return 唯一名称
+     */
+    public String next() {
+        return next(MIN_LENGTH);
+    }
+
+    /**
+     * 生成指定长度的名称，超出最小长度的部分使用随机字符填充
+     *
+     * @param length 名称长度，不能小于{@link #MIN_LENGTH}
+     * @return 唯一名称
+     */
+    public String next(int length) {
+        return appendTo(new StringBuilder(length), length).toString();
+    }
+
+    /**
+     * 生成指定长度的名称并追加至字符序列
+     *
+     * @param builder 目标字符序列
+     * @param length 名称长度，不能小于{@link #MIN_LENGTH}
+     * @return 传入的目标字符序列
+     */
+    public StringBuilder appendTo(StringBuilder builder, int length) {
+        if (length < MIN_LENGTH) {
+            throw new IllegalArgumentException("名称长度不能小于" + MIN_LENGTH);
+        }
+        appendEncoded(builder, nextState(), STATE_LENGTH);
+        appendEncoded(builder, nodeId, NODE_LENGTH);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = MIN_LENGTH; i < length; i++) {
+            builder.append(DIGITS[random.nextInt(DIGITS.length)]);
+        }
+        return builder;
+    }
+
+    /**
+     * 获取下一个时间戳与序列号组合值，同一毫秒内的序列号用尽时借用下一毫秒，保证严格递增
+     */
+    private long nextState() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        while (true) {
+            long previous = state.get();
+            long next = Math.max(previous + 1, now);
+            if (state.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * 按每字符5位、高位在前的方式编码数值
+     */
+    private static void appendEncoded(StringBuilder builder, long value, int length) {
+        for (int shift = (length - 1) * 5; shift >= 0; shift -= 5) {
+            builder.append(DIGITS[(int) (value >>> shift) & 0x1f]);
+        }
+    }
+
+    /**
+     * 延迟创建默认生成器，避免类加载时初始化SecureRandom
+     */
+    private static class Holder {
+        private static final UniqueNameGenerator INSTANCE = new UniqueNameGenerator(new SecureRandom().nextLong());
+    }
+}
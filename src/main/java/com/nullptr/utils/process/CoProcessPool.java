@@ -0,0 +1,568 @@
+package com.nullptr.utils.process;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 常驻进程池，用于反复调用同一个按行交互的命令。池中保持若干个长期运行的子进程，
+ * 每次请求向空闲进程的标准输入写入一行，再按响应格式从标准输出读取响应，省去每次启动进程的开销。
+ * <p>
+ * 进程在请求超时、读写失败、处理的请求数达到上限或健康检查失败时被销毁，之后按需启动新的进程。
+ * 进程通过调度器启动，存活期间占用调度器的运行名额，错误输出由调度器的线程按行写入警告日志
+ * <pre>{@code
+ *     try (CoProcessPool pool = new CoProcessPool(4, "bc", "-l")
+ *             .requestTimeout(1, TimeUnit.SECONDS)
+ *             .healthCheck("1+1", "2"::equals, 30, TimeUnit.SECONDS)) {
+ *         pool.warmUp();
+ *         String result = pool.request("2^10");
+ *     }
+ * }</pre>
+ * 配置需在首次请求前完成
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @version 1.1 2026-10-18 通过调度器启动进程，拒绝包含换行符的请求
+ * @since 1.0 2026-10-18
+ * @see ProcessRunner
+ */
+public class CoProcessPool implements Closeable {
+    private static final Log logger = LogFactory.getLog(CoProcessPool.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final List<String> command;
+    private final int size;
+    private ProcessScheduler scheduler = ProcessScheduler.getDefault();
+    private File directory;
+    private Charset charset = ProcessUtils.SYS_CHARSET;
+    private ResponseFraming framing = ResponseFraming.LINE;
+    private long requestTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+    private long borrowTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+    private int maxRequestsPerProcess;
+    private String healthCheckRequest;
+    private Predicate<String> healthCheckExpectation;
+    private long healthCheckIntervalNanos;
+
+    /** 空闲进程，最近归还的进程优先使用 */
+    private final BlockingDeque<Worker> idle = new LinkedBlockingDeque<>();
+    /** 存活的进程数，包括正在处理请求的进程 */
+    private final AtomicInteger liveCount = new AtomicInteger();
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder startedCount = new LongAdder();
+    private final LongAdder recycledCount = new LongAdder();
+    /** 请求超时计时器，只执行不会阻塞的超时处理 */
+    private final ScheduledThreadPoolExecutor timer;
+    /** 健康检查线程，检查请求会阻塞等待响应，不能与超时处理共用线程 */
+    private final ScheduledThreadPoolExecutor healthChecker;
+    private volatile boolean healthCheckScheduled;
+    private volatile boolean closed;
+
+    /**
+     * 创建进程池，命令字符串按空白字符拆分，与{@link Runtime#exec(String)}一致
+     *
+     * @param size 最多同时存在的进程数
+     * @param command 系统命令字符串
+     */
+    public CoProcessPool(int size, String command) {
+        this(size, ProcessRunner.tokenize(command));
+    }
+
+    /**
+     * 创建进程池
+     *
+     * @param size 最多同时存在的进程数
+     * @param command 命令及参数，参数不再拆分
+     */
+    public CoProcessPool(int size, String... command) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("进程数必须大于0");
+        }
+        if (command.length == 0) {
+            throw new IllegalArgumentException("命令不能为空");
+        }
+        this.size = size;
+        this.command = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(command)));
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "co-process-timer-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.healthChecker = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "co-process-health-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 设置启动进程的调度器，每个存活的进程占用一个运行名额，直至进程被销毁
+     *
+     * @param scheduler 调度器，默认为{@link ProcessScheduler#getDefault()}
+     * @return 当前进程池
+     */
+    public CoProcessPool scheduler(ProcessScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * 设置工作目录
+     *
+     * @param directory 工作目录，为空时使用当前进程的工作目录
+     * @return 当前进程池
+     */
+    public CoProcessPool directory(File directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    /**
+     * 设置请求与响应的字符编码
+     *
+     * @param charset 字符编码，默认为{@link ProcessUtils#SYS_CHARSET}
+     * @return 当前进程池
+     */
+    public CoProcessPool charset(Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+
+    /**
+     * 设置响应格式
+     *
+     * @param framing 响应格式，默认每个响应为一行
+     * @return 当前进程池
+     */
+    public CoProcessPool framing(ResponseFraming framing) {
+        this.framing = framing;
+        return this;
+    }
+
+    /**
+     * 设置单个请求的时限，超时后处理请求的进程被销毁
+     *
+     * @param timeout 请求时限，为0时不限制
+     * @param unit 时间单位
+     * @return 当前进程池
+     */
+    public CoProcessPool requestTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("请求时限不能小于0");
+        }
+        this.requestTimeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * 设置所有进程都在处理请求时，等待空闲进程的时限
+     *
+     * @param timeout 等待时限
+     * @param unit 时间单位
+     * @return 当前进程池
+     */
+    public CoProcessPool borrowTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("等待时限不能小于0");
+        }
+        this.borrowTimeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * 设置单个进程最多处理的请求数，达到上限后进程被销毁并替换，用于回收存在内存泄漏的命令
+     *
+     * @param maxRequests 最多处理的请求数，为0时不限制
+     * @return 当前进程池
+     */
+    public CoProcessPool maxRequestsPerProcess(int maxRequests) {
+        if (maxRequests < 0) {
+            throw new IllegalArgumentException("请求数上限不能小于0");
+        }
+        this.maxRequestsPerProcess = maxRequests;
+        return this;
+    }
+
+    /**
+     * 设置健康检查，定期向空闲进程发送检查请求，响应不符合预期或超时的进程被销毁
+     *
+     * @param request 检查请求，不能包含换行符
+     * @param expectation 响应是否符合预期
+     * @param interval 检查间隔
+     * @param unit 时间单位
+     * @return 当前进程池
+     */
+    public CoProcessPool healthCheck(String request, Predicate<String> expectation, long interval, TimeUnit unit) {
+        checkRequest(request);
+        if (interval <= 0) {
+            throw new IllegalArgumentException("检查间隔必须大于0");
+        }
+        this.healthCheckRequest = request;
+        this.healthCheckExpectation = expectation;
+        this.healthCheckIntervalNanos = unit.toNanos(interval);
+        return this;
+    }
+
+    /**
+     * 预先启动所有进程
+     *
+     * @throws IOException 启动进程失败时抛出
+     * @throws RejectedExecutionException 调度器的等待队列已满时抛出
+     */
+    public void warmUp() throws IOException {
+        ensureOpen();
+        scheduleHealthCheck();
+        while (true) {
+            int live = liveCount.get();
+            if (live >= size) {
+                return;
+            }
+            if (liveCount.compareAndSet(live, live + 1)) {
+                idle.offerFirst(startWorker());
+            }
+        }
+    }
+
+    /**
+     * 发送请求并读取响应，请求后会自动添加换行符
+     *
+     * @param request 请求，不能包含换行符
+     * @return 响应
+     * @throws IOException 启动进程失败、读写失败或进程已退出时抛出，请求超时时抛出{@link InterruptedIOException}
+     * @throws InterruptedException 等待空闲进程时被中断
+     * @throws IllegalArgumentException 请求包含换行符时抛出
+     * @throws IllegalStateException 进程池已关闭时抛出
+     * @throws RejectedExecutionException 调度器的等待队列已满时抛出
+     */
+    public String request(String request) throws IOException, InterruptedException {
+        // 请求中的换行符会使进程产生多个响应，多余的响应将被之后的请求读取
+        checkRequest(request);
+        Worker worker = borrow();
+        boolean healthy = false;
+        try {
+            String response = worker.exchange(request, requestTimeoutNanos);
+            requestCount.increment();
+            healthy = maxRequestsPerProcess == 0 || worker.requestCount < maxRequestsPerProcess;
+            return response;
+        } finally {
+            giveBack(worker, healthy);
+        }
+    }
+
+    /**
+     * 获取存活的进程数
+     *
+     * @return 存活的进程数
+     */
+    public int getLiveCount() {
+        return liveCount.get();
+    }
+
+    /**
+     * 获取空闲的进程数
+     *
+     * @return 空闲的进程数
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * 获取已完成的请求数
+     *
+     * @return 已完成的请求数
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * 获取已启动的进程总数
+     *
+     * @return 已启动的进程总数
+     */
+    public long getStartedCount() {
+        return startedCount.sum();
+    }
+
+    /**
+     * 获取因失败、超时、达到请求数上限或健康检查失败而被销毁的进程总数
+     *
+     * @return 被销毁的进程总数
+     */
+    public long getRecycledCount() {
+        return recycledCount.sum();
+    }
+
+    /**
+     * 关闭进程池，销毁空闲进程，正在处理请求的进程在请求结束后销毁
+     */
+    @Override
+    public void close() {
+        closed = true;
+        healthChecker.shutdownNow();
+        // 已安排的超时处理仍会执行，正在进行的健康检查与请求不会因超时处理被取消而一直阻塞
+        timer.shutdown();
+        Worker worker;
+        while ((worker = idle.pollFirst()) != null) {
+            discard(worker, false);
+        }
+    }
+
+    private Worker borrow() throws IOException, InterruptedException {
+        ensureOpen();
+        scheduleHealthCheck();
+        Worker worker = idle.pollFirst();
+        if (worker != null) {
+            return worker;
+        }
+        while (true) {
+            int live = liveCount.get();
+            if (live >= size) {
+                break;
+            }
+            if (liveCount.compareAndSet(live, live + 1)) {
+                return startWorker();
+            }
+        }
+        worker = idle.pollFirst(borrowTimeoutNanos, TimeUnit.NANOSECONDS);
+        if (worker == null) {
+            throw new InterruptedIOException("等待空闲进程超时");
+        }
+        return worker;
+    }
+
+    private void giveBack(Worker worker, boolean healthy) {
+        if (healthy && !closed && !worker.timedOut && worker.process.isAlive()) {
+            idle.offerFirst(worker);
+            // 关闭与归还同时发生时，避免进程遗留在空闲队列中
+            if (closed && idle.remove(worker)) {
+                discard(worker, false);
+            }
+        } else {
+            discard(worker, !closed);
+        }
+    }
+
+    /**
+     * 在调度器中启动进程，调用前需已占用存活进程数
+     */
+    private Worker startWorker() throws IOException {
+        try {
+            ProcessExecution execution = scheduler.start(executor -> {
+                ProcessBuilder builder = new ProcessBuilder(command).directory(directory);
+                long spawnStart = System.nanoTime();
+                Process process = builder.start();
+                ProcessExecution started = new ProcessExecution(command, process, System.nanoTime() - spawnStart);
+                // 错误输出在进程被销毁后结束，调度器的运行名额随之释放
+                started.startPumps(executor, Collections.singletonList(
+                        () -> logErrors(started.countOutput(process.getErrorStream()))));
+                return started;
+            });
+            Worker worker = new Worker(execution);
+            startedCount.increment();
+            return worker;
+        } catch (IOException | RuntimeException e) {
+            liveCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void discard(Worker worker, boolean recycled) {
+        liveCount.decrementAndGet();
+        if (recycled) {
+            recycledCount.increment();
+        }
+        worker.destroy();
+    }
+
+    private void logErrors(InputStream errorStream) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(errorStream, charset))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                logger.warn(line);
+            }
+        }
+    }
+
+    private static void checkRequest(String request) {
+        if (request.indexOf('\n') >= 0 || request.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("请求不能包含换行符");
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("进程池已关闭");
+        }
+    }
+
+    private void scheduleHealthCheck() {
+        if (healthCheckScheduled || healthCheckRequest == null) {
+            return;
+        }
+        synchronized (this) {
+            if (!healthCheckScheduled) {
+                healthCheckScheduled = true;
+                healthChecker.scheduleWithFixedDelay(this::checkIdleWorkers, healthCheckIntervalNanos,
+                        healthCheckIntervalNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * 检查当前所有空闲进程，检查期间进程不会被借出
+     */
+    private void checkIdleWorkers() {
+        for (int i = idle.size(); i > 0; i--) {
+            Worker worker = idle.pollLast();
+            if (worker == null) {
+                return;
+            }
+            boolean healthy;
+            try {
+                healthy = healthCheckExpectation.test(worker.exchange(healthCheckRequest, requestTimeoutNanos));
+            } catch (IOException | RuntimeException e) {
+                healthy = false;
+            }
+            if (!healthy) {
+                logger.warn("进程" + command + "健康检查失败，进程将被销毁");
+            }
+            giveBack(worker, healthy);
+        }
+    }
+
+    /**
+     * 响应格式，从进程的标准输出中读取一个完整的响应
+     */
+    @FunctionalInterface
+    public interface ResponseFraming {
+        /** 每个响应为一行 */
+        ResponseFraming LINE = BufferedReader::readLine;
+
+        /**
+         * 读取一个响应
+         *
+         * @param reader 进程的标准输出
+         * @return 响应，标准输出已结束时返回null
+         * @throws IOException 读取失败时抛出
+         */
+        String read(BufferedReader reader) throws IOException;
+
+        /**
+         * 响应由多行组成，以指定的结束行结尾，返回的响应不包含结束行，各行以\n连接
+         *
+         * @param terminator 结束行
+         * @return 响应格式
+         */
+        static ResponseFraming terminatedBy(String terminator) {
+            return reader -> {
+                StringBuilder response = new StringBuilder();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.equals(terminator)) {
+                        return response.toString();
+                    }
+                    if (response.length() > 0) {
+                        response.append('\n');
+                    }
+                    response.append(line);
+                }
+                return null;
+            };
+        }
+    }
+
+    /**
+     * 池中的一个进程
+     */
+    private class Worker {
+        private final ProcessExecution execution;
+        private final Process process;
+        private final Writer input;
+        private final BufferedReader output;
+        /** 当前请求是否仍在等待响应，请求完成与超时只有先发生的一方生效 */
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private volatile boolean timedOut;
+        private int requestCount;
+
+        private Worker(ProcessExecution execution) {
+            this.execution = execution;
+            this.process = execution.getProcess();
+            this.input = new BufferedWriter(new OutputStreamWriter(
+                    execution.countInput(process.getOutputStream()), charset));
+            this.output = new BufferedReader(new InputStreamReader(
+                    execution.countOutput(process.getInputStream()), charset));
+        }
+
+        /**
+         * 写入请求并读取响应，超时后强制销毁进程使读取结束，超时的进程不会再被使用
+         */
+        private String exchange(String request, long timeoutNanos) throws IOException {
+            requestCount++;
+            pending.set(true);
+            ScheduledFuture<?> watchdog = timeoutNanos > 0 && !timer.isShutdown()
+                    ? timer.schedule(this::expire, timeoutNanos, TimeUnit.NANOSECONDS) : null;
+            String response;
+            try {
+                input.write(request);
+                input.write('\n');
+                input.flush();
+                response = framing.read(output);
+            } catch (IOException e) {
+                if (finish(watchdog)) {
+                    throw e;
+                }
+                throw new InterruptedIOException("请求超时");
+            } catch (RuntimeException e) {
+                finish(watchdog);
+                throw e;
+            }
+            if (!finish(watchdog)) {
+                throw new InterruptedIOException("请求超时");
+            }
+            if (response == null) {
+                throw new EOFException("进程已退出");
+            }
+            return response;
+        }
+
+        /**
+         * 结束当前请求
+         *
+         * @return 请求在时限内完成则返回true，已超时则返回false
+         */
+        private boolean finish(ScheduledFuture<?> watchdog) {
+            boolean inTime = pending.compareAndSet(true, false);
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+            return inTime;
+        }
+
+        private void expire() {
+            if (pending.compareAndSet(true, false)) {
+                timedOut = true;
+                process.destroyForcibly();
+            }
+        }
+
+        /**
+         * 销毁进程，宽限期后仍未结束则强制销毁
+         */
+        private void destroy() {
+            execution.cancel();
+        }
+    }
+}
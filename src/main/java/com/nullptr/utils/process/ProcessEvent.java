@@ -0,0 +1,143 @@
+package com.nullptr.utils.process;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程执行完成后的统计事件，包含退出码、各阶段耗时和读写字节数。
+ * <p>
+ * 启动耗时为创建子进程的时间；运行耗时从进程启动完成到进程退出；读取耗时从进程退出到所有管道读写及回调处理完成。
+ * 运行环境（JDK 9以下）不支持监听进程退出时，运行耗时包含读取耗时，读取耗时为0。
+ * 由子进程直接读写文件的数据不计入字节数
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ * @see ProcessListener
+ */
+public final class ProcessEvent {
+    private final List<String> command;
+    private final int exitCode;
+    private final Throwable failure;
+    private final boolean timedOut;
+    private final boolean cancelled;
+    private final long spawnNanos;
+    private final long runNanos;
+    private final long drainNanos;
+    private final long bytesIn;
+    private final long bytesOut;
+
+    ProcessEvent(List<String> command, int exitCode, Throwable failure, boolean timedOut, boolean cancelled,
+                 long spawnNanos, long runNanos, long drainNanos, long bytesIn, long bytesOut) {
+        this.command = command;
+        this.exitCode = exitCode;
+        this.failure = failure;
+        this.timedOut = timedOut;
+        this.cancelled = cancelled;
+        this.spawnNanos = spawnNanos;
+        this.runNanos = runNanos;
+        this.drainNanos = drainNanos;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+    }
+
+    /**
+     * 获取命令及参数
+     *
+     * @return 命令及参数
+     */
+    public List<String> getCommand() {
+        return command;
+    }
+
+    /**
+     * 获取进程退出码
+     *
+     * @return 进程退出码，进程未退出时为-1
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * 获取执行失败的原因，包括管道读写失败、超时和取消
+     *
+     * @return 失败原因，执行成功时为null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * 判断执行是否因超时而终止
+     *
+     * @return 超时则返回true，否则为false
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * 判断执行是否被取消
+     *
+     * @return 被取消则返回true，否则为false
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 获取启动进程的耗时
+     *
+     * @param unit 时间单位
+     * @return 启动耗时
+     */
+    public long getSpawnTime(TimeUnit unit) {
+        return unit.convert(spawnNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取进程运行的耗时
+     *
+     * @param unit 时间单位
+     * @return 运行耗时
+     */
+    public long getRunTime(TimeUnit unit) {
+        return unit.convert(runNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取进程退出后读取剩余输出的耗时
+     *
+     * @param unit 时间单位
+     * @return 读取耗时
+     */
+    public long getDrainTime(TimeUnit unit) {
+        return unit.convert(drainNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取写入标准输入的字节数
+     *
+     * @return 字节数
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * 获取读取标准输出和错误输出的字节数
+     *
+     * @return 字节数
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessEvent{command=" + command + ", exitCode=" + exitCode + ", failure=" + failure
+                + ", spawnNanos=" + spawnNanos + ", runNanos=" + runNanos + ", drainNanos=" + drainNanos
+                + ", bytesIn=" + bytesIn + ", bytesOut=" + bytesOut + '}';
+    }
+}
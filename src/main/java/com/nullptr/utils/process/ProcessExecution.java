@@ -0,0 +1,441 @@
+package com.nullptr.utils.process;
+
+import org.apache.commons.io.input.ProxyInputStream;
+import org.apache.commons.io.output.ProxyOutputStream;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 已启动进程的执行句柄，包含进程本身及读写进程管道的后台任务。
+ * 所有管道读写任务结束且进程退出后，执行视为完成。
+ * <p>
+ * 执行超时或被取消时先销毁进程，宽限期后仍未结束则强制销毁，再经过一个宽限期仍有管道读写未结束时关闭进程的管道。
+ * 运行环境（JDK 9及以上）支持时，进程的子进程也会被一同销毁。因此执行总会在超时后的两个宽限期内完成
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @version 1.1 2026-10-18 增加执行超时与取消
+ * @version 1.2 2026-10-18 统计启动、运行与读取耗时及读写字节数
+ * @since 1.0 2026-10-18
+ * @see ProcessRunner#start()
+ */
+public class ProcessExecution {
+    /** 执行超时与宽限期计时器，使用守护线程 */
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "process-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Process.descendants()，JDK 9以下为null */
+    private static final Method DESCENDANTS;
+    /** ProcessHandle.destroy()，JDK 9以下为null */
+    private static final Method HANDLE_DESTROY;
+    /** ProcessHandle.destroyForcibly()，JDK 9以下为null */
+    private static final Method HANDLE_DESTROY_FORCIBLY;
+    /** Process.onExit()，JDK 9以下为null */
+    private static final Method ON_EXIT;
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+        Method descendants = null;
+        Method destroy = null;
+        Method destroyForcibly = null;
+        Method onExit = null;
+        try {
+            onExit = Process.class.getMethod("onExit");
+            Class<?> handleClass = Class.forName("java.lang.ProcessHandle");
+            descendants = Process.class.getMethod("descendants");
+            destroy = handleClass.getMethod("destroy");
+            destroyForcibly = handleClass.getMethod("destroyForcibly");
+        } catch (ReflectiveOperationException e) {
+            // 运行环境不支持获取子进程
+            descendants = null;
+        }
+        DESCENDANTS = descendants;
+        HANDLE_DESTROY = destroy;
+        HANDLE_DESTROY_FORCIBLY = destroyForcibly;
+        ON_EXIT = onExit;
+    }
+
+    private final List<String> command;
+    private final Process process;
+    private final long spawnNanos;
+    /** 进程启动完成的时间 */
+    private final long startTime;
+    /** 进程退出的时间，运行环境不支持监听进程退出时为所有管道读写完成的时间 */
+    private volatile long exitTime;
+    private volatile long completeTime;
+    /** 写入标准输入的字节数 */
+    private final LongAdder bytesIn = new LongAdder();
+    /** 读取标准输出和错误输出的字节数 */
+    private final LongAdder bytesOut = new LongAdder();
+    /** 尚未结束的管道读写任务数 */
+    private final AtomicInteger remainingPumps = new AtomicInteger();
+    /** 进程退出码，管道读写失败时以IOException结束 */
+    private final CompletableFuture<Integer> completion = new CompletableFuture<>();
+    private IOException failure;
+    /** 销毁进程后等待进程结束的宽限期 */
+    private long gracePeriodNanos = TimeUnit.SECONDS.toNanos(2);
+    private volatile boolean terminating;
+    private volatile boolean timedOut;
+    private volatile boolean cancelled;
+
+    /**
+     * 创建执行句柄
+     *
+     * @param command 命令及参数
+     * @param process 已启动的进程
+     * @param spawnNanos 启动进程的耗时
+     */
+    ProcessExecution(List<String> command, Process process, long spawnNanos) {
+        this.command = command;
+        this.process = process;
+        this.spawnNanos = spawnNanos;
+        this.startTime = System.nanoTime();
+        listenExit();
+    }
+
+    /**
+     * 包装进程的标准输入，统计写入的字节数
+     *
+     * @param output 进程的标准输入
+     * @return 统计字节数的输出流
+     */
+    OutputStream countInput(OutputStream output) {
+        return new ProxyOutputStream(output) {
+            @Override
+            protected void beforeWrite(int n) {
+                bytesIn.add(n);
+            }
+        };
+    }
+
+    /**
+     * 包装进程的标准输出或错误输出，统计读取的字节数
+     *
+     * @param input 进程的标准输出或错误输出
+     * @return 统计字节数的输入流
+     */
+    InputStream countOutput(InputStream input) {
+        return new ProxyInputStream(input) {
+            @Override
+            protected void afterRead(int n) {
+                if (n > 0) {
+                    bytesOut.add(n);
+                }
+            }
+        };
+    }
+
+    /**
+     * 生成执行完成后的统计事件
+     *
+     * @param error 执行失败的原因，成功时为null
+     * @return 统计事件
+     */
+    ProcessEvent toEvent(Throwable error) {
+        long exit = exitTime == 0 ? completeTime : exitTime;
+        int exitCode = process.isAlive() ? -1 : process.exitValue();
+        return new ProcessEvent(command, exitCode, error instanceof CompletionException ? error.getCause() : error,
+                timedOut, cancelled, spawnNanos, Math.max(0, exit - startTime), Math.max(0, completeTime - exit),
+                bytesIn.sum(), bytesOut.sum());
+    }
+
+    /**
+     * 获取命令及参数
+     *
+     * @return 命令及参数
+     */
+    public List<String> getCommand() {
+        return command;
+    }
+
+    /**
+     * 在线程池中执行写入标准输入、读取标准输出和错误输出的任务
+     *
+     * @param executor 线程池
+     * @param pumps 管道读写任务
+     */
+    void startPumps(Executor executor, List<Pump> pumps) {
+        remainingPumps.set(pumps.size());
+        for (Pump pump : pumps) {
+            try {
+                executor.execute(() -> runPump(pump));
+            } catch (RejectedExecutionException e) {
+                fail(new IOException("线程池已关闭，无法处理进程输入输出", e));
+                process.destroyForcibly();
+                pumpFinished();
+            }
+        }
+    }
+
+    /**
+     * 设置执行时限，超时后终止进程
+     *
+     * @param timeoutNanos 执行时限，从进程启动开始计算
+     * @param gracePeriodNanos 销毁进程后的宽限期
+     */
+    void setDeadline(long timeoutNanos, long gracePeriodNanos) {
+        this.gracePeriodNanos = gracePeriodNanos;
+        if (timeoutNanos <= 0) {
+            return;
+        }
+        ScheduledFuture<?> timeout = TIMER.schedule(() -> {
+            if (!completion.isDone()) {
+                timedOut = true;
+                terminate();
+            }
+        }, timeoutNanos, TimeUnit.NANOSECONDS);
+        completion.whenComplete((exitCode, error) -> timeout.cancel(false));
+    }
+
+    /**
+     * 获取执行完成的结果，进程退出且所有管道读写完成时以退出码完成
+     *
+     * @return 执行结果
+     */
+    CompletableFuture<Integer> completion() {
+        return completion;
+    }
+
+    /**
+     * 获取进程
+     *
+     * @return 进程
+     */
+    public Process getProcess() {
+        return process;
+    }
+
+    /**
+     * 判断进程是否仍在运行
+     *
+     * @return 仍在运行则返回true，否则为false
+     */
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * 判断进程是否已退出且所有管道读写完成
+     *
+     * @return 已完成则返回true，否则为false
+     */
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * 判断执行是否因超时而终止
+     *
+     * @return 超时则返回true，否则为false
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * 判断执行是否被取消
+     *
+     * @return 被取消则返回true，否则为false
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 等待进程结束且所有管道读写完成
+     *
+     * @return 进程退出码
+     * @throws IOException 读写管道或回调处理失败时抛出，多个任务失败时其余异常作为被抑制的异常；
+     * 执行超时时抛出{@link InterruptedIOException}
+     * @throws CancellationException 执行被取消时抛出
+     * @throws InterruptedException 等待时被中断
+     */
+    public int waitFor() throws IOException, InterruptedException {
+        try {
+            return completion.get();
+        } catch (ExecutionException e) {
+            throw (IOException) e.getCause();
+        }
+    }
+
+    /**
+     * 获取可组合的执行结果，执行完成时以进程退出码完成，超时、取消或失败时以对应的异常完成。
+     * 取消返回的结果不会影响进程，终止进程需调用{@link #cancel()}
+     *
+     * @return 执行结果
+     */
+    public CompletableFuture<Integer> toCompletableFuture() {
+        return completion.thenApply(exitCode -> exitCode);
+    }
+
+    /**
+     * 取消执行，销毁进程，宽限期后仍未结束则强制销毁。执行在进程结束且管道读写完成后才视为完成
+     *
+     * @return 执行尚未完成且尚未被取消则返回true，否则为false
+     */
+    public synchronized boolean cancel() {
+        if (completion.isDone() || cancelled) {
+            return false;
+        }
+        cancelled = true;
+        terminate();
+        return true;
+    }
+
+    /**
+     * 销毁进程，进程的管道随之关闭，读写管道的任务随后结束
+     */
+    public void destroy() {
+        process.destroy();
+    }
+
+    /**
+     * 依次销毁进程、强制销毁进程、关闭进程的管道，每一步之间等待一个宽限期
+     */
+    private synchronized void terminate() {
+        if (terminating) {
+            return;
+        }
+        terminating = true;
+        // 在销毁进程前获取子进程，进程结束后子进程不再属于此进程
+        List<Object> descendants = descendants();
+        process.destroy();
+        destroyAll(descendants, HANDLE_DESTROY);
+        TIMER.schedule(() -> {
+            if (completion.isDone()) {
+                return;
+            }
+            process.destroyForcibly();
+            destroyAll(descendants, HANDLE_DESTROY_FORCIBLY);
+            TIMER.schedule(() -> {
+                // 管道被仍在运行的其他进程持有时，关闭管道使读写任务结束
+                if (!completion.isDone()) {
+                    closeQuietly(process.getOutputStream());
+                    closeQuietly(process.getInputStream());
+                    closeQuietly(process.getErrorStream());
+                }
+            }, gracePeriodNanos, TimeUnit.NANOSECONDS);
+        }, gracePeriodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> descendants() {
+        if (DESCENDANTS == null) {
+            return Collections.emptyList();
+        }
+        try (Stream<Object> stream = (Stream<Object>) DESCENDANTS.invoke(process)) {
+            return stream.collect(Collectors.toList());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static void destroyAll(List<Object> handles, Method destroy) {
+        for (Object handle : handles) {
+            try {
+                destroy.invoke(handle);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // 子进程已结束或无权销毁
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // 管道已关闭
+        }
+    }
+
+    /**
+     * 运行环境支持时监听进程退出，记录退出时间
+     */
+    private void listenExit() {
+        if (ON_EXIT == null) {
+            return;
+        }
+        try {
+            ((CompletableFuture<?>) ON_EXIT.invoke(process)).thenRun(() -> exitTime = System.nanoTime());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 退出时间以管道读写完成的时间代替
+        }
+    }
+
+    private void runPump(Pump pump) {
+        try {
+            pump.run();
+        } catch (IOException e) {
+            fail(e);
+        } catch (RuntimeException | Error e) {
+            fail(new IOException("处理进程输入输出失败", e));
+        } finally {
+            pumpFinished();
+        }
+    }
+
+    private synchronized void fail(IOException exception) {
+        if (failure == null) {
+            failure = exception;
+        } else {
+            failure.addSuppressed(exception);
+        }
+    }
+
+    /**
+     * 最后一个管道读写任务结束时等待进程退出并完成执行
+     */
+    private void pumpFinished() {
+        if (remainingPumps.decrementAndGet() != 0) {
+            return;
+        }
+        int exitCode;
+        try {
+            exitCode = process.waitFor();
+        } catch (InterruptedException e) {
+            // 线程池被强制关闭，进程不再受管理
+            process.destroyForcibly();
+            fail(new IOException("等待进程退出时被中断", e));
+            exitCode = -1;
+        }
+        completeTime = System.nanoTime();
+        if (cancelled) {
+            completion.cancel(false);
+            return;
+        }
+        if (timedOut) {
+            completion.completeExceptionally(new InterruptedIOException("进程执行超时"));
+            return;
+        }
+        synchronized (this) {
+            if (failure != null) {
+                completion.completeExceptionally(failure);
+                return;
+            }
+        }
+        completion.complete(exitCode);
+    }
+
+    /**
+     * 管道读写任务
+     */
+    @FunctionalInterface
+    interface Pump {
+        /**
+         * 读写管道直到结束
+         *
+         * @throws IOException 读写或回调处理失败时抛出
+         */
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,88 @@
+package com.nullptr.utils.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 向子进程的标准输入写入数据。
+ * <p>
+ * 子进程可以不读完标准输入就关闭它并退出，例如head。此时写入会因管道断开而失败，
+ * 而失败发生时子进程可能仍未退出，无法据此区分正常结束与异常。
+ * 因此写入标准输入失败时只停止写入并丢弃剩余数据，执行结果由子进程的退出码决定；
+ * 读取数据来源失败时仍然抛出异常
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ */
+final class ProcessInput {
+    private ProcessInput() {
+    }
+
+    /**
+     * 分段写入字节数据，写入完成或子进程不再读取后关闭标准输入
+     *
+     * @param processInput 子进程的标准输入
+     * @param bytes 数据
+     * @param bufferSize 每次写入的最大长度
+     */
+    static void write(OutputStream processInput, byte[] bytes, int bufferSize) {
+        try {
+            for (int offset = 0; offset < bytes.length; offset += bufferSize) {
+                if (!write(processInput, bytes, offset, Math.min(bufferSize, bytes.length - offset))) {
+                    return;
+                }
+            }
+        } finally {
+            closeQuietly(processInput);
+        }
+    }
+
+    /**
+     * 将数据流复制到子进程的标准输入，复制完成或子进程不再读取后关闭标准输入，数据流不会被关闭
+     *
+     * @param source 数据来源
+     * @param processInput 子进程的标准输入
+     * @param bufferSize 缓冲区大小
+     * @throws IOException 读取数据来源失败时抛出
+     */
+    static void copy(InputStream source, OutputStream processInput, int bufferSize) throws IOException {
+        try {
+            byte[] buffer = new byte[bufferSize];
+            int count;
+            while ((count = source.read(buffer)) >= 0) {
+                if (!write(processInput, buffer, 0, count)) {
+                    return;
+                }
+            }
+        } finally {
+            closeQuietly(processInput);
+        }
+    }
+
+    /**
+     * 写入一段数据
+     *
+     * @return 写入成功则返回true，子进程已关闭标准输入则返回false
+     */
+    private static boolean write(OutputStream processInput, byte[] buffer, int offset, int length) {
+        try {
+            processInput.write(buffer, offset, length);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 关闭标准输入，缓冲区中剩余的数据在关闭时写入，子进程已关闭标准输入时同样忽略失败
+     */
+    private static void closeQuietly(OutputStream processInput) {
+        try {
+            processInput.close();
+        } catch (IOException e) {
+            // 子进程已关闭标准输入
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.nullptr.utils.process;
+
+import java.util.List;
+
+/**
+ * 进程执行监听器，由进程调度器在进程启动和执行完成时调用，用于采集指标或记录追踪信息。
+ * 回调在启动进程或读写管道的线程中执行，需尽快返回，抛出的异常被记录到日志后忽略
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ * @see ProcessScheduler#addListener(ProcessListener)
+ * @see ProcessMetrics
+ */
+public interface ProcessListener {
+    /**
+     * 进程已启动
+     *
+     * @param command 命令及参数
+     */
+    default void onStarted(List<String> command) {
+    }
+
+    /**
+     * 进程已退出且所有管道读写完成，或执行失败、超时、被取消
+     *
+     * @param event 统计事件
+     */
+    void onCompleted(ProcessEvent event);
+}
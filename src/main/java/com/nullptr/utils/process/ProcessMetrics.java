@@ -0,0 +1,470 @@
+package com.nullptr.utils.process;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 内存中的进程执行指标记录器，按命令分别统计启动、运行和读取耗时的直方图，读写字节数，
+ * 退出码出现次数以及同时运行的进程数。指标以快照的形式获取，便于导出到其他监控系统
+ * <pre>{@code
+ *     ProcessMetrics metrics = new ProcessMetrics();
+ *     ProcessScheduler.getDefault().addListener(metrics);
+ *     ...
+ *     ProcessMetrics.CommandSnapshot grep = metrics.snapshot().getCommands().get("grep");
+ *     long p99 = grep.getRunTime().getPercentile(0.99, TimeUnit.MILLISECONDS);
+ * }</pre>
+ * 直方图的桶按微秒的2的幂划分，百分位数为所在桶的上界，误差不超过一倍
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ * @see ProcessScheduler#addListener(ProcessListener)
+ */
+public class ProcessMetrics implements ProcessListener {
+    /** 直方图的桶数，最后一个桶包含所有超过2^38微秒（约3天）的值 */
+    private static final int BUCKET_COUNT = 40;
+
+    private final Function<List<String>, String> keyMapper;
+    private final ConcurrentMap<String, CommandRecorder> commands = new ConcurrentHashMap<>();
+    private final AtomicInteger runningCount = new AtomicInteger();
+    private final AtomicInteger peakRunningCount = new AtomicInteger();
+
+    /**
+     * 创建记录器，以命令的第一个元素（可执行文件）区分命令，避免参数不同的调用各自统计
+     */
+    public ProcessMetrics() {
+        this(command -> command.get(0));
+    }
+
+    /**
+     * 创建记录器
+     *
+     * @param keyMapper 由命令及参数得到统计使用的命令名称
+     */
+    public ProcessMetrics(Function<List<String>, String> keyMapper) {
+        this.keyMapper = keyMapper;
+    }
+
+    @Override
+    public void onStarted(List<String> command) {
+        recorder(command).started();
+        peakRunningCount.accumulateAndGet(runningCount.incrementAndGet(), Math::max);
+    }
+
+    @Override
+    public void onCompleted(ProcessEvent event) {
+        runningCount.decrementAndGet();
+        recorder(event.getCommand()).completed(event);
+    }
+
+    /**
+     * 获取当前所有指标的快照
+     *
+     * @return 指标快照
+     */
+    public Snapshot snapshot() {
+        Map<String, CommandSnapshot> snapshots = new TreeMap<>();
+        commands.forEach((key, recorder) -> snapshots.put(key, recorder.snapshot()));
+        return new Snapshot(runningCount.get(), peakRunningCount.get(), Collections.unmodifiableMap(snapshots));
+    }
+
+    private CommandRecorder recorder(List<String> command) {
+        return commands.computeIfAbsent(keyMapper.apply(command), key -> new CommandRecorder());
+    }
+
+    /**
+     * 所有指标的快照
+     */
+    public static final class Snapshot {
+        private final int runningCount;
+        private final int peakRunningCount;
+        private final Map<String, CommandSnapshot> commands;
+
+        private Snapshot(int runningCount, int peakRunningCount, Map<String, CommandSnapshot> commands) {
+            this.runningCount = runningCount;
+            this.peakRunningCount = peakRunningCount;
+            this.commands = commands;
+        }
+
+        /**
+         * 获取正在运行的进程数
+         *
+         * @return 正在运行的进程数
+         */
+        public int getRunningCount() {
+            return runningCount;
+        }
+
+        /**
+         * 获取同时运行的进程数峰值
+         *
+         * @return 进程数峰值
+         */
+        public int getPeakRunningCount() {
+            return peakRunningCount;
+        }
+
+        /**
+         * 获取各命令的指标
+         *
+         * @return 命令名称与指标的映射，按命令名称排序
+         */
+        public Map<String, CommandSnapshot> getCommands() {
+            return commands;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{running=" + runningCount + ", peakRunning=" + peakRunningCount
+                    + ", commands=" + commands + '}';
+        }
+    }
+
+    /**
+     * 单个命令的指标快照
+     */
+    public static final class CommandSnapshot {
+        private final long startedCount;
+        private final int runningCount;
+        private final int peakRunningCount;
+        private final long failedCount;
+        private final long timedOutCount;
+        private final long cancelledCount;
+        private final long bytesIn;
+        private final long bytesOut;
+        private final Map<Integer, Long> exitCodeCounts;
+        private final Histogram spawnTime;
+        private final Histogram runTime;
+        private final Histogram drainTime;
+
+        private CommandSnapshot(CommandRecorder recorder) {
+            this.startedCount = recorder.startedCount.sum();
+            this.runningCount = recorder.runningCount.get();
+            this.peakRunningCount = recorder.peakRunningCount.get();
+            this.failedCount = recorder.failedCount.sum();
+            this.timedOutCount = recorder.timedOutCount.sum();
+            this.cancelledCount = recorder.cancelledCount.sum();
+            this.bytesIn = recorder.bytesIn.sum();
+            this.bytesOut = recorder.bytesOut.sum();
+            Map<Integer, Long> counts = new TreeMap<>();
+            recorder.exitCodeCounts.forEach((code, count) -> counts.put(code, count.sum()));
+            this.exitCodeCounts = Collections.unmodifiableMap(counts);
+            this.spawnTime = recorder.spawnTime.snapshot();
+            this.runTime = recorder.runTime.snapshot();
+            this.drainTime = recorder.drainTime.snapshot();
+        }
+
+        /**
+         * 获取已启动的进程数
+         *
+         * @return 已启动的进程数
+         */
+        public long getStartedCount() {
+            return startedCount;
+        }
+
+        /**
+         * 获取正在运行的进程数
+         *
+         * @return 正在运行的进程数
+         */
+        public int getRunningCount() {
+            return runningCount;
+        }
+
+        /**
+         * 获取同时运行的进程数峰值
+         *
+         * @return 进程数峰值
+         */
+        public int getPeakRunningCount() {
+            return peakRunningCount;
+        }
+
+        /**
+         * 获取管道读写失败、超时或被取消的进程数
+         *
+         * @return 失败的进程数
+         */
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * 获取超时的进程数
+         *
+         * @return 超时的进程数
+         */
+        public long getTimedOutCount() {
+            return timedOutCount;
+        }
+
+        /**
+         * 获取被取消的进程数
+         *
+         * @return 被取消的进程数
+         */
+        public long getCancelledCount() {
+            return cancelledCount;
+        }
+
+        /**
+         * 获取写入标准输入的总字节数
+         *
+         * @return 字节数
+         */
+        public long getBytesIn() {
+            return bytesIn;
+        }
+
+        /**
+         * 获取读取标准输出和错误输出的总字节数
+         *
+         * @return 字节数
+         */
+        public long getBytesOut() {
+            return bytesOut;
+        }
+
+        /**
+         * 获取各退出码出现的次数
+         *
+         * @return 退出码与次数的映射，按退出码排序
+         */
+        public Map<Integer, Long> getExitCodeCounts() {
+            return exitCodeCounts;
+        }
+
+        /**
+         * 获取启动耗时的直方图
+         *
+         * @return 直方图
+         */
+        public Histogram getSpawnTime() {
+            return spawnTime;
+        }
+
+        /**
+         * 获取运行耗时的直方图
+         *
+         * @return 直方图
+         */
+        public Histogram getRunTime() {
+            return runTime;
+        }
+
+        /**
+         * 获取读取耗时的直方图
+         *
+         * @return 直方图
+         */
+        public Histogram getDrainTime() {
+            return drainTime;
+        }
+
+        @Override
+        public String toString() {
+            return "CommandSnapshot{started=" + startedCount + ", running=" + runningCount
+                    + ", failed=" + failedCount + ", bytesIn=" + bytesIn + ", bytesOut=" + bytesOut
+                    + ", exitCodes=" + exitCodeCounts + ", spawn=" + spawnTime + ", run=" + runTime
+                    + ", drain=" + drainTime + '}';
+        }
+    }
+
+    /**
+     * 耗时直方图的快照，第i个桶统计[2^(i-1), 2^i)微秒内的值，第0个桶统计小于1微秒的值
+     */
+    public static final class Histogram {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] buckets;
+
+        private Histogram(long count, long totalNanos, long maxNanos, long[] buckets) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.buckets = buckets;
+        }
+
+        /**
+         * 获取记录的次数
+         *
+         * @return 记录次数
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * 获取总耗时
+         *
+         * @param unit 时间单位
+         * @return 总耗时
+         */
+        public long getTotal(TimeUnit unit) {
+            return unit.convert(totalNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 获取平均耗时
+         *
+         * @param unit 时间单位
+         * @return 平均耗时，没有记录时为0
+         */
+        public long getMean(TimeUnit unit) {
+            return count == 0 ? 0 : unit.convert(totalNanos / count, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 获取最大耗时
+         *
+         * @param unit 时间单位
+         * @return 最大耗时
+         */
+        public long getMax(TimeUnit unit) {
+            return unit.convert(maxNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 获取百分位耗时的估计值，为所在桶的上界且不超过最大耗时
+         *
+         * @param percentile 百分位，取值范围为[0, 1]
+         * @param unit 时间单位
+         * @return 百分位耗时，没有记录时为0
+         */
+        public long getPercentile(double percentile, TimeUnit unit) {
+            if (percentile < 0 || percentile > 1) {
+                throw new IllegalArgumentException("百分位的取值范围为[0, 1]");
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return unit.convert(Math.min(maxNanos, getBucketUpperBound(i, TimeUnit.NANOSECONDS)),
+                            TimeUnit.NANOSECONDS);
+                }
+            }
+            return unit.convert(maxNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 获取各桶的记录次数
+         *
+         * @return 各桶的记录次数
+         */
+        public long[] getBucketCounts() {
+            return buckets.clone();
+        }
+
+        /**
+         * 获取桶的上界（不包含），最后一个桶没有上界
+         *
+         * @param bucket 桶的序号
+         * @param unit 时间单位
+         * @return 桶的上界，最后一个桶为{@link Long#MAX_VALUE}
+         */
+        public long getBucketUpperBound(int bucket, TimeUnit unit) {
+            if (bucket >= BUCKET_COUNT - 1) {
+                return Long.MAX_VALUE;
+            }
+            return unit.convert(1L << bucket, TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return "Histogram{count=" + count + ", meanMicros=" + getMean(TimeUnit.MICROSECONDS)
+                    + ", p50Micros=" + getPercentile(0.5, TimeUnit.MICROSECONDS)
+                    + ", p99Micros=" + getPercentile(0.99, TimeUnit.MICROSECONDS)
+                    + ", maxMicros=" + getMax(TimeUnit.MICROSECONDS) + '}';
+        }
+    }
+
+    /**
+     * 单个命令的指标记录
+     */
+    private static class CommandRecorder {
+        private final LongAdder startedCount = new LongAdder();
+        private final AtomicInteger runningCount = new AtomicInteger();
+        private final AtomicInteger peakRunningCount = new AtomicInteger();
+        private final LongAdder failedCount = new LongAdder();
+        private final LongAdder timedOutCount = new LongAdder();
+        private final LongAdder cancelledCount = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final ConcurrentMap<Integer, LongAdder> exitCodeCounts = new ConcurrentHashMap<>();
+        private final HistogramRecorder spawnTime = new HistogramRecorder();
+        private final HistogramRecorder runTime = new HistogramRecorder();
+        private final HistogramRecorder drainTime = new HistogramRecorder();
+
+        private void started() {
+            startedCount.increment();
+            peakRunningCount.accumulateAndGet(runningCount.incrementAndGet(), Math::max);
+        }
+
+        private void completed(ProcessEvent event) {
+            runningCount.decrementAndGet();
+            if (event.getFailure() != null) {
+                failedCount.increment();
+            }
+            if (event.isTimedOut()) {
+                timedOutCount.increment();
+            }
+            if (event.isCancelled()) {
+                cancelledCount.increment();
+            }
+            bytesIn.add(event.getBytesIn());
+            bytesOut.add(event.getBytesOut());
+            exitCodeCounts.computeIfAbsent(event.getExitCode(), code -> new LongAdder()).increment();
+            spawnTime.record(event.getSpawnTime(TimeUnit.NANOSECONDS));
+            runTime.record(event.getRunTime(TimeUnit.NANOSECONDS));
+            drainTime.record(event.getDrainTime(TimeUnit.NANOSECONDS));
+        }
+
+        private CommandSnapshot snapshot() {
+            return new CommandSnapshot(this);
+        }
+    }
+
+    /**
+     * 耗时直方图的记录，各桶独立计数，快照不保证各字段之间严格一致
+     */
+    private static class HistogramRecorder {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long nanos) {
+            long micros = nanos / 1000;
+            int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private Histogram snapshot() {
+            long[] counts = new long[BUCKET_COUNT];
+            long total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            // 以桶的计数为准，保证百分位的计算与桶一致
+            return new Histogram(total, totalNanos.sum(), maxNanos.get(), counts);
+        }
+    }
+}
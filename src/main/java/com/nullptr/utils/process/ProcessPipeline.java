@@ -0,0 +1,390 @@
+package com.nullptr.utils.process;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程管道，依次连接多个命令，前一个命令的标准输出作为后一个命令的标准输入，与shell中的管道相同。
+ * 数据以字节形式在各阶段之间传递，不做字符编码转换，每个阶段只使用一个固定大小的缓冲区，
+ * 内存占用与数据量无关。来源或目标为文件时由子进程直接读写文件
+ * <pre>{@code
+ *     int[] exitCodes = new ProcessPipeline()
+ *             .from(new File("access.log"))
+ *             .command("grep", "-v", "healthcheck")
+ *             .command("gzip", "-c")
+ *             .to(new File("access.log.gz"))
+ *             .run();
+ * }</pre>
+ * 后一个命令提前退出时，前一个命令的标准输出被关闭，前一个命令随后因写入失败而结束
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @version 1.1 2026-10-18 统计各阶段启动进程的耗时与读写管道的字节数
+ * @since 1.0 2026-10-18
+ * @see ProcessRunner
+ */
+public class ProcessPipeline {
+    private final List<List<String>> commands = new ArrayList<>();
+    private ProcessScheduler scheduler = ProcessScheduler.getDefault();
+    private File directory;
+    private File sourceFile;
+    private InputStream sourceStream;
+    private byte[] sourceBytes;
+    private File sinkFile;
+    private boolean appendSink;
+    private OutputStream sinkStream;
+    private ProcessRunner.ChunkHandler sinkHandler;
+    private ProcessRunner.ChunkHandler errorHandler;
+    private int bufferSize = ProcessRunner.DEFAULT_BUFFER_SIZE;
+    private long timeoutNanos;
+    private long gracePeriodNanos = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * 添加命令，命令字符串按空白字符拆分，与{@link Runtime#exec(String)}一致
+     *
+     * @param command 系统命令字符串
+     * @return 当前管道
+     */
+    public ProcessPipeline command(String command) {
+        return command(ProcessRunner.tokenize(command));
+    }
+
+    /**
+     * 添加命令
+     *
+     * @param command 命令及参数，参数不再拆分
+     * @return 当前管道
+     */
+    public ProcessPipeline command(String... command) {
+        if (command.length == 0) {
+            throw new IllegalArgumentException("命令不能为空");
+        }
+        commands.add(Collections.unmodifiableList(new ArrayList<>(Arrays.asList(command))));
+        return this;
+    }
+
+    /**
+     * 设置启动进程的调度器，管道中的所有进程一次性获取运行名额
+     *
+     * @param scheduler 调度器，默认为{@link ProcessScheduler#getDefault()}
+     * @return 当前管道
+     */
+    public ProcessPipeline scheduler(ProcessScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * 设置所有命令的工作目录
+     *
+     * @param directory 工作目录，为空时使用当前进程的工作目录
+     * @return 当前管道
+     */
+    public ProcessPipeline directory(File directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    /**
+     * 以文件作为第一个命令的标准输入，文件由子进程直接读取
+     *
+     * @param file 输入文件
+     * @return 当前管道
+     */
+    public ProcessPipeline from(File file) {
+        clearSource();
+        this.sourceFile = file;
+        return this;
+    }
+
+    /**
+     * 以数据流作为第一个命令的标准输入，数据流只能被读取一次，写入完成后关闭数据流
+     *
+     * @param input 输入数据流
+     * @return 当前管道
+     */
+    public ProcessPipeline from(InputStream input) {
+        clearSource();
+        this.sourceStream = input;
+        return this;
+    }
+
+    /**
+     * 以字节数据作为第一个命令的标准输入
+     *
+     * @param bytes 输入数据
+     * @return 当前管道
+     */
+    public ProcessPipeline from(byte[] bytes) {
+        clearSource();
+        this.sourceBytes = bytes;
+        return this;
+    }
+
+    /**
+     * 将最后一个命令的标准输出写入文件，文件由子进程直接写入，已存在的文件会被覆盖
+     *
+     * @param file 输出文件
+     * @return 当前管道
+     */
+    public ProcessPipeline to(File file) {
+        return to(file, false);
+    }
+
+    /**
+     * 将最后一个命令的标准输出写入文件，文件由子进程直接写入
+     *
+     * @param file 输出文件
+     * @param append 是否追加到文件末尾
+     * @return 当前管道
+     */
+    public ProcessPipeline to(File file, boolean append) {
+        clearSink();
+        this.sinkFile = file;
+        this.appendSink = append;
+        return this;
+    }
+
+    /**
+     * 将最后一个命令的标准输出写入输出流，写入完成后刷新但不关闭输出流
+     *
+     * @param output 输出流
+     * @return 当前管道
+     */
+    public ProcessPipeline to(OutputStream output) {
+        clearSink();
+        this.sinkStream = output;
+        return this;
+    }
+
+    /**
+     * 分段处理最后一个命令的标准输出。未设置输出目标时标准输出被读取后丢弃
+     *
+     * @param handler 分段回调
+     * @return 当前管道
+     */
+    public ProcessPipeline to(ProcessRunner.ChunkHandler handler) {
+        clearSink();
+        this.sinkHandler = handler;
+        return this;
+    }
+
+    /**
+     * 分段处理所有命令的错误输出，回调不会被同时调用。未设置时错误输出被读取后丢弃
+     *
+     * @param handler 分段回调
+     * @return 当前管道
+     */
+    public ProcessPipeline onError(ProcessRunner.ChunkHandler handler) {
+        this.errorHandler = handler;
+        return this;
+    }
+
+    /**
+     * 设置各阶段之间传递数据的缓冲区大小
+     *
+     * @param bufferSize 缓冲区大小
+     * @return 当前管道
+     */
+    public ProcessPipeline bufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("缓冲区大小必须大于0");
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * 设置每个命令的执行时限，从进程启动开始计算
+     *
+     * @param timeout 执行时限，为0时不限制
+     * @param unit 时间单位
+     * @return 当前管道
+     * @see ProcessRunner#timeout(long, TimeUnit)
+     */
+    public ProcessPipeline timeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("执行时限不能小于0");
+        }
+        this.timeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * 设置超时或取消时销毁进程后的宽限期
+     *
+     * @param gracePeriod 宽限期
+     * @param unit 时间单位
+     * @return 当前管道
+     */
+    public ProcessPipeline gracePeriod(long gracePeriod, TimeUnit unit) {
+        if (gracePeriod < 0) {
+            throw new IllegalArgumentException("宽限期不能小于0");
+        }
+        this.gracePeriodNanos = unit.toNanos(gracePeriod);
+        return this;
+    }
+
+    /**
+     * 执行管道，等待所有命令结束且所有数据传递完成，任一命令失败时取消其余命令
+     *
+     * @return 各命令的退出码，与命令添加的顺序一致
+     * @throws IOException 启动进程失败或传递数据失败时抛出，执行超时时抛出{@link InterruptedIOException}
+     * @throws InterruptedException 等待时被中断，所有命令会被取消
+     * @throws java.util.concurrent.RejectedExecutionException 调度器的等待队列已满时抛出
+     */
+    public int[] run() throws IOException, InterruptedException {
+        List<ProcessExecution> executions = start();
+        int[] exitCodes = new int[executions.size()];
+        try {
+            for (int i = 0; i < exitCodes.length; i++) {
+                exitCodes[i] = executions.get(i).waitFor();
+            }
+        } catch (IOException | InterruptedException | CancellationException e) {
+            for (ProcessExecution execution : executions) {
+                execution.cancel();
+            }
+            throw e;
+        }
+        return exitCodes;
+    }
+
+    /**
+     * 启动管道中的所有命令
+     *
+     * @return 各命令的执行句柄，与命令添加的顺序一致
+     * @throws IOException 启动进程失败或等待时被中断时抛出，已启动的进程会被销毁
+     * @throws java.util.concurrent.RejectedExecutionException 调度器的等待队列已满时抛出
+     * @throws IllegalArgumentException 命令数超过调度器的进程数上限时抛出
+     */
+    public List<ProcessExecution> start() throws IOException {
+        if (commands.isEmpty()) {
+            throw new IllegalStateException("管道中没有命令");
+        }
+        InputStream stream = sourceStream;
+        sourceStream = null;
+        return scheduler.startGroup(commands.size(), (executor, register) -> {
+            List<ProcessExecution> executions = startProcesses();
+            int last = executions.size() - 1;
+            Object errorLock = new Object();
+            for (int i = 0; i <= last; i++) {
+                ProcessExecution execution = executions.get(i);
+                Process process = execution.getProcess();
+                execution.setDeadline(timeoutNanos, gracePeriodNanos);
+                List<ProcessExecution.Pump> pumps = new ArrayList<>(3);
+                if (i == 0 && sourceFile == null) {
+                    pumps.add(() -> writeSource(execution.countInput(process.getOutputStream()), stream));
+                }
+                if (i < last) {
+                    ProcessExecution next = executions.get(i + 1);
+                    pumps.add(() -> pipe(execution.countOutput(process.getInputStream()),
+                            next.countInput(next.getProcess().getOutputStream())));
+                } else if (sinkFile == null) {
+                    pumps.add(() -> writeSink(execution.countOutput(process.getInputStream())));
+                }
+                InputStream errorStream = execution.countOutput(process.getErrorStream());
+                pumps.add(() -> copy(errorStream, errorHandler == null ? null : (buffer, offset, length) -> {
+                    synchronized (errorLock) {
+                        errorHandler.onChunk(buffer, offset, length);
+                    }
+                }));
+                register.accept(execution);
+                execution.startPumps(executor, pumps);
+            }
+        });
+    }
+
+    /**
+     * 启动所有进程，任一进程启动失败时强制销毁已启动的进程
+     */
+    private List<ProcessExecution> startProcesses() throws IOException {
+        List<ProcessExecution> executions = new ArrayList<>(commands.size());
+        try {
+            for (int i = 0; i < commands.size(); i++) {
+                ProcessBuilder builder = new ProcessBuilder(commands.get(i)).directory(directory);
+                if (i == 0 && sourceFile != null) {
+                    builder.redirectInput(sourceFile);
+                }
+                if (i == commands.size() - 1 && sinkFile != null) {
+                    builder.redirectOutput(appendSink ? ProcessBuilder.Redirect.appendTo(sinkFile)
+                            : ProcessBuilder.Redirect.to(sinkFile));
+                }
+                long spawnStart = System.nanoTime();
+                Process process = builder.start();
+                executions.add(new ProcessExecution(commands.get(i), process, System.nanoTime() - spawnStart));
+            }
+        } catch (IOException e) {
+            for (ProcessExecution execution : executions) {
+                execution.getProcess().destroyForcibly();
+            }
+            throw e;
+        }
+        return executions;
+    }
+
+    /**
+     * 将来源数据写入第一个命令的标准输入，第一个命令不再读取标准输入时未写完的数据被丢弃
+     */
+    private void writeSource(OutputStream processInput, InputStream stream) throws IOException {
+        if (sourceBytes != null) {
+            ProcessInput.write(processInput, sourceBytes, bufferSize);
+        } else if (stream != null) {
+            try (InputStream input = stream) {
+                ProcessInput.copy(input, processInput, bufferSize);
+            }
+        } else {
+            ProcessInput.write(processInput, new byte[0], bufferSize);
+        }
+    }
+
+    /**
+     * 将前一个命令的标准输出写入后一个命令的标准输入。后一个命令不再读取标准输入时关闭前一个命令的标准输出，
+     * 与shell管道一致，前一个命令随后写入时收到SIGPIPE，执行结果由各命令的退出码决定
+     */
+    private void pipe(InputStream input, OutputStream nextInput) throws IOException {
+        try (InputStream source = input) {
+            ProcessInput.copy(source, nextInput, bufferSize);
+        }
+    }
+
+    private void writeSink(InputStream input) throws IOException {
+        if (sinkStream != null) {
+            copy(input, sinkStream::write);
+            sinkStream.flush();
+        } else {
+            copy(input, sinkHandler);
+        }
+    }
+
+    /**
+     * 使用固定大小的缓冲区复制数据，处理方式为空时丢弃数据
+     */
+    private void copy(InputStream input, ProcessRunner.ChunkHandler handler) throws IOException {
+        try (InputStream source = input) {
+            byte[] buffer = new byte[bufferSize];
+            int count;
+            while ((count = source.read(buffer)) >= 0) {
+                if (handler != null && count > 0) {
+                    handler.onChunk(buffer, 0, count);
+                }
+            }
+        }
+    }
+
+    private void clearSource() {
+        sourceFile = null;
+        sourceStream = null;
+        sourceBytes = null;
+    }
+
+    private void clearSink() {
+        sinkFile = null;
+        sinkStream = null;
+        sinkHandler = null;
+    }
+}
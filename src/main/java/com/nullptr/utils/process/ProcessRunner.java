@@ -0,0 +1,616 @@
+package com.nullptr.utils.process;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 进程执行器，同时在独立的线程中写入标准输入、读取标准输出和错误输出，子进程不会因任一管道写满而阻塞。
+ * 输出以固定大小的缓冲区分段交给回调处理，或按行交给回调、以行流的形式返回，内存占用与输出总量无关
+ * <pre>{@code
+ *     int exitCode = new ProcessRunner("grep -n error")
+ *             .input(Paths.get("app.log").toFile())
+ *             .onOutputLine(System.out::println)
+ *             .onErrorLine(logger::warn)
+ *             .run();
+ *
+ *     try (Stream<String> lines = new ProcessRunner("ls", "-l").lines()) {
+ *         lines.filter(line -> line.endsWith(".xml")).forEach(System.out::println);
+ *     }
+ * }</pre>
+ * 执行器只保存执行配置，配置完成后可多次执行
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @version 1.1 2026-10-18 统计启动进程的耗时与读写管道的字节数
+ * @since 1.0 2026-10-18
+ * @see ProcessUtils
+ */
+public class ProcessRunner {
+    /** 默认读写缓冲区大小 */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    /** 默认最大行长度，超出此长度的行被拆分为多行 */
+    public static final int DEFAULT_MAX_LINE_LENGTH = 64 * 1024;
+    /** 行流中默认最多缓存的行数，缓存满时暂停读取子进程的输出 */
+    public static final int DEFAULT_LINE_QUEUE_SIZE = 1024;
+    /** 默认宽限期，销毁进程后等待进程结束的时间 */
+    private static final long DEFAULT_GRACE_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final List<String> command;
+    private ProcessScheduler scheduler = ProcessScheduler.getDefault();
+    private File directory;
+    private byte[] inputBytes;
+    private InputStream inputStream;
+    private File inputFile;
+    private Charset charset = ProcessUtils.SYS_CHARSET;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private int maxLineLength = DEFAULT_MAX_LINE_LENGTH;
+    private int lineQueueSize = DEFAULT_LINE_QUEUE_SIZE;
+    private long timeoutNanos;
+    private long gracePeriodNanos = DEFAULT_GRACE_PERIOD_NANOS;
+    /** 标准输出处理方式，为ChunkHandler、LineHandler、ProcessUtils.Function或null */
+    private Object outputHandler;
+    /** 错误输出处理方式，为ChunkHandler、LineHandler、ProcessUtils.Function或null */
+    private Object errorHandler;
+
+    /**
+     * 创建执行器，命令字符串按空白字符拆分，与{@link Runtime#exec(String)}一致
+     *
+     * @param command 系统命令字符串
+     */
+    public ProcessRunner(String command) {
+        this(tokenize(command));
+    }
+
+    /**
+     * 创建执行器
+     *
+     * @param command 命令及参数，参数不再拆分
+     */
+    public ProcessRunner(String... command) {
+        if (command.length == 0) {
+            throw new IllegalArgumentException("命令不能为空");
+        }
+        this.command = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(command)));
+    }
+
+    /**
+     * 设置启动进程的调度器
+     *
+     * @param scheduler 调度器，默认为{@link ProcessScheduler#getDefault()}
+     * @return 当前执行器
+     */
+    public ProcessRunner scheduler(ProcessScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * 设置工作目录
+     *
+     * @param directory 工作目录，为空时使用当前进程的工作目录
+     * @return 当前执行器
+     */
+    public ProcessRunner directory(File directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    /**
+     * 设置写入标准输入的数据，写入完成后关闭标准输入
+     *
+     * @param bytes 输入数据
+     * @return 当前执行器
+     */
+    public ProcessRunner input(byte[] bytes) {
+        clearInput();
+        this.inputBytes = bytes;
+        return this;
+    }
+
+    /**
+     * 设置写入标准输入的数据流，数据流只能被读取一次，写入完成后关闭数据流和标准输入
+     *
+     * @param input 输入数据流
+     * @return 当前执行器
+     */
+    public ProcessRunner input(InputStream input) {
+        clearInput();
+        this.inputStream = input;
+        return this;
+    }
+
+    /**
+     * 设置写入标准输入的文件，文件由子进程直接读取
+     *
+     * @param file 输入文件
+     * @return 当前执行器
+     */
+    public ProcessRunner input(File file) {
+        clearInput();
+        this.inputFile = file;
+        return this;
+    }
+
+    /**
+     * 设置按行处理输出时使用的字符编码
+     *
+     * @param charset 字符编码，默认为{@link ProcessUtils#SYS_CHARSET}
+     * @return 当前执行器
+     */
+    public ProcessRunner charset(Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+
+    /**
+     * 设置读写缓冲区大小，分段回调中每段数据不超过此大小
+     *
+     * @param bufferSize 缓冲区大小
+     * @return 当前执行器
+     */
+    public ProcessRunner bufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("缓冲区大小必须大于0");
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * 设置最大行长度，超出此长度的行被拆分为多行
+     *
+     * @param maxLineLength 最大行长度
+     * @return 当前执行器
+     */
+    public ProcessRunner maxLineLength(int maxLineLength) {
+        if (maxLineLength <= 0) {
+            throw new IllegalArgumentException("最大行长度必须大于0");
+        }
+        this.maxLineLength = maxLineLength;
+        return this;
+    }
+
+    /**
+     * 设置行流中最多缓存的行数
+     *
+     * @param lineQueueSize 最多缓存的行数
+     * @return 当前执行器
+     * @see #lines()
+     */
+    public ProcessRunner lineQueueSize(int lineQueueSize) {
+        if (lineQueueSize <= 0) {
+            throw new IllegalArgumentException("缓存行数必须大于0");
+        }
+        this.lineQueueSize = lineQueueSize;
+        return this;
+    }
+
+    /**
+     * 设置执行时限，从进程启动开始计算，超时后依次销毁、强制销毁进程，执行以{@link InterruptedIOException}结束
+     *
+     * @param timeout 执行时限，为0时不限制
+     * @param unit 时间单位
+     * @return 当前执行器
+     * @see ProcessExecution#isTimedOut()
+     */
+    public ProcessRunner timeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("执行时限不能小于0");
+        }
+        this.timeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * 设置超时或取消时销毁进程后的宽限期，宽限期后仍未结束的进程被强制销毁
+     *
+     * @param gracePeriod 宽限期
+     * @param unit 时间单位
+     * @return 当前执行器
+     */
+    public ProcessRunner gracePeriod(long gracePeriod, TimeUnit unit) {
+        if (gracePeriod < 0) {
+            throw new IllegalArgumentException("宽限期不能小于0");
+        }
+        this.gracePeriodNanos = unit.toNanos(gracePeriod);
+        return this;
+    }
+
+    /**
+     * 分段处理标准输出，替换之前设置的标准输出处理方式。未设置时标准输出被读取后丢弃
+     *
+     * @param handler 分段回调
+     * @return 当前执行器
+     */
+    public ProcessRunner onOutput(ChunkHandler handler) {
+        this.outputHandler = handler;
+        return this;
+    }
+
+    /**
+     * 按行处理标准输出，替换之前设置的标准输出处理方式
+     *
+     * @param handler 行回调
+     * @return 当前执行器
+     */
+    public ProcessRunner onOutputLine(LineHandler handler) {
+        this.outputHandler = handler;
+        return this;
+    }
+
+    /**
+     * 分段处理错误输出，替换之前设置的错误输出处理方式。未设置时错误输出被读取后丢弃
+     *
+     * @param handler 分段回调
+     * @return 当前执行器
+     */
+    public ProcessRunner onError(ChunkHandler handler) {
+        this.errorHandler = handler;
+        return this;
+    }
+
+    /**
+     * 按行处理错误输出，替换之前设置的错误输出处理方式
+     *
+     * @param handler 行回调
+     * @return 当前执行器
+     */
+    public ProcessRunner onErrorLine(LineHandler handler) {
+        this.errorHandler = handler;
+        return this;
+    }
+
+    /**
+     * 以输入流的形式处理标准输出，回调返回后剩余的输出被读取后丢弃
+     *
+     * @param handler 输入流回调
+     * @return 当前执行器
+     */
+    ProcessRunner onOutputStream(ProcessUtils.Function handler) {
+        this.outputHandler = handler;
+        return this;
+    }
+
+    /**
+     * 以输入流的形式处理错误输出，回调返回后剩余的输出被读取后丢弃
+     *
+     * @param handler 输入流回调
+     * @return 当前执行器
+     */
+    ProcessRunner onErrorStream(ProcessUtils.Function handler) {
+        this.errorHandler = handler;
+        return this;
+    }
+
+    /**
+     * 获取命令及参数
+     *
+     * @return 命令及参数
+     */
+    public List<String> getCommand() {
+        return command;
+    }
+
+    /**
+     * 执行命令，等待进程结束且所有输出处理完成
+     *
+     * @return 进程退出码
+     * @throws IOException 启动进程失败或读写管道、回调处理失败时抛出
+     * 执行超时时抛出{@link InterruptedIOException}
+     * @throws InterruptedException 等待时被中断，执行会被取消
+     * @throws java.util.concurrent.RejectedExecutionException 调度器的等待队列已满时抛出
+     */
+    public int run() throws IOException, InterruptedException {
+        ProcessExecution execution = start();
+        try {
+            return execution.waitFor();
+        } catch (InterruptedException e) {
+            execution.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * 启动进程，输出在后台交由回调处理。调度器中运行的进程数达到上限时等待
+     *
+     * @return 进程执行句柄
+     * @throws IOException 启动进程失败或等待时被中断时抛出
+     * @throws java.util.concurrent.RejectedExecutionException 调度器的等待队列已满时抛出
+     */
+    public ProcessExecution start() throws IOException {
+        return start(outputHandler);
+    }
+
+    /**
+     * 启动进程，以行流的形式返回标准输出。行流中缓存的行数达到上限时暂停读取，由子进程的输出管道提供背压，
+     * 错误输出仍按设置的方式并行处理。行流读取完毕时会等待进程结束，关闭未读取完的行流会销毁进程。
+     * 行流只能在单个线程中使用，需在使用后关闭，行流关闭前进程一直占用调度器中的运行名额
+     *
+     * @return 标准输出的行流
+     * @throws IOException 启动进程失败或等待时被中断时抛出
+     * @throws java.util.concurrent.RejectedExecutionException 调度器的等待队列已满时抛出
+     */
+    public Stream<String> lines() throws IOException {
+        LineQueue queue = new LineQueue(lineQueueSize);
+        queue.execution = start(queue);
+        Spliterator<String> spliterator = Spliterators.spliteratorUnknownSize(queue,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(queue::close);
+    }
+
+    private ProcessExecution start(Object output) throws IOException {
+        byte[] bytes = inputBytes;
+        InputStream stream = inputStream;
+        inputStream = null;
+        File file = inputFile;
+        Object error = errorHandler;
+        long timeout = timeoutNanos;
+        long gracePeriod = gracePeriodNanos;
+        return scheduler.start(executor -> {
+            ProcessBuilder builder = new ProcessBuilder(command).directory(directory);
+            if (file != null) {
+                builder.redirectInput(file);
+            }
+            long spawnStart = System.nanoTime();
+            Process process = builder.start();
+            ProcessExecution execution = new ProcessExecution(command, process, System.nanoTime() - spawnStart);
+            execution.setDeadline(timeout, gracePeriod);
+            List<ProcessExecution.Pump> pumps = new ArrayList<>(3);
+            if (file == null) {
+                pumps.add(() -> writeInput(execution.countInput(process.getOutputStream()), bytes, stream));
+            }
+            pumps.add(() -> {
+                try {
+                    readOutput(execution.countOutput(process.getInputStream()), output);
+                } finally {
+                    if (output instanceof LineQueue) {
+                        ((LineQueue) output).finish();
+                    }
+                }
+            });
+            pumps.add(() -> readOutput(execution.countOutput(process.getErrorStream()), error));
+            execution.startPumps(executor, pumps);
+            return execution;
+        });
+    }
+
+    private void writeInput(OutputStream processInput, byte[] bytes, InputStream stream) throws IOException {
+        // 子进程不再读取标准输入时，未写完的数据被丢弃，由退出码决定执行结果
+        if (bytes != null) {
+            ProcessInput.write(processInput, bytes, bufferSize);
+        } else if (stream != null) {
+            try (InputStream input = stream) {
+                ProcessInput.copy(input, processInput, bufferSize);
+            }
+        } else {
+            ProcessInput.write(processInput, new byte[0], bufferSize);
+        }
+    }
+
+    private void readOutput(InputStream stream, Object handler) throws IOException {
+        try (InputStream input = stream) {
+            if (handler instanceof LineHandler) {
+                readLines(input, (LineHandler) handler);
+                return;
+            }
+            if (handler instanceof ProcessUtils.Function) {
+                ((ProcessUtils.Function) handler).process(input);
+                discardRemaining(input);
+                return;
+            }
+            ChunkHandler chunkHandler = (ChunkHandler) handler;
+            byte[] buffer = new byte[bufferSize];
+            int count;
+            while ((count = input.read(buffer)) >= 0) {
+                if (chunkHandler != null && count > 0) {
+                    chunkHandler.onChunk(buffer, 0, count);
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取并丢弃剩余的输出，避免子进程因管道写满而阻塞，输入流已被回调关闭时直接返回
+     */
+    private void discardRemaining(InputStream input) {
+        byte[] buffer = new byte[bufferSize];
+        try {
+            while (input.read(buffer) >= 0) {
+                // 丢弃输出
+            }
+        } catch (IOException e) {
+            // 输入流已被关闭
+        }
+    }
+
+    /**
+     * 按行读取输出，行分隔符为\n、\r或\r\n，不包含在行中
+     */
+    private void readLines(InputStream input, LineHandler handler) throws IOException {
+        Reader reader = new InputStreamReader(input, charset);
+        char[] buffer = new char[bufferSize];
+        StringBuilder line = new StringBuilder();
+        boolean skipLineFeed = false;
+        int count;
+        while ((count = reader.read(buffer)) >= 0) {
+            int start = 0;
+            for (int i = 0; i < count; i++) {
+                char c = buffer[i];
+                if (c != '\n' && c != '\r') {
+                    skipLineFeed = false;
+                    continue;
+                }
+                if (c == '\n' && skipLineFeed) {
+                    skipLineFeed = false;
+                    start = i + 1;
+                    continue;
+                }
+                appendLine(line, buffer, start, i, handler);
+                handler.onLine(line.toString());
+                line.setLength(0);
+                skipLineFeed = c == '\r';
+                start = i + 1;
+            }
+            appendLine(line, buffer, start, count, handler);
+        }
+        if (line.length() > 0) {
+            handler.onLine(line.toString());
+        }
+    }
+
+    /**
+     * 将字符追加到当前行，当前行达到最大长度时先作为单独的一行处理
+     */
+    private void appendLine(StringBuilder line, char[] buffer, int start, int end, LineHandler handler)
+            throws IOException {
+        while (start < end) {
+            int count = Math.min(end - start, maxLineLength - line.length());
+            line.append(buffer, start, count);
+            start += count;
+            if (line.length() == maxLineLength && start < end) {
+                handler.onLine(line.toString());
+                line.setLength(0);
+            }
+        }
+    }
+
+    private void clearInput() {
+        inputBytes = null;
+        inputStream = null;
+        inputFile = null;
+    }
+
+    static String[] tokenize(String command) {
+        StringTokenizer tokenizer = new StringTokenizer(command);
+        String[] tokens = new String[tokenizer.countTokens()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokenizer.nextToken();
+        }
+        return tokens;
+    }
+
+    /**
+     * 输出分段回调
+     */
+    @FunctionalInterface
+    public interface ChunkHandler {
+        /**
+         * 处理一段输出，缓冲区在回调返回后会被复用
+         *
+         * @param buffer 缓冲区
+         * @param offset 数据起始位置
+         * @param length 数据长度
+         * @throws IOException 处理失败时抛出，之后的输出不再读取
+         */
+        void onChunk(byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    /**
+     * 输出行回调
+     */
+    @FunctionalInterface
+    public interface LineHandler {
+        /**
+         * 处理一行输出
+         *
+         * @param line 不包含行分隔符的一行
+         * @throws IOException 处理失败时抛出，之后的输出不再读取
+         */
+        void onLine(String line) throws IOException;
+    }
+
+    /**
+     * 行流使用的有界队列，读取线程放入行，行流在调用线程中取出
+     */
+    private static class LineQueue implements LineHandler, Iterator<String> {
+        /** 输出读取完毕的标记 */
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> queue;
+        private volatile boolean closed;
+        private ProcessExecution execution;
+        private Object next;
+        private boolean finished;
+
+        private LineQueue(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void onLine(String line) throws IOException {
+            offer(line);
+        }
+
+        /**
+         * 输出读取完毕或读取失败时放入结束标记
+         */
+        private void finish() throws IOException {
+            if (!closed) {
+                offer(END);
+            }
+        }
+
+        private void offer(Object item) throws IOException {
+            try {
+                // 行流被关闭后不再等待，避免读取线程永久阻塞
+                while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    if (closed) {
+                        throw new IOException("行流已关闭");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待行流读取时被中断");
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (finished) {
+                return false;
+            }
+            try {
+                Object item = queue.take();
+                if (item == END) {
+                    finished = true;
+                    // 读取失败时抛出读取线程中的异常
+                    execution.waitFor();
+                    return false;
+                }
+                next = item;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("等待进程输出时被中断"));
+            }
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = (String) next;
+            next = null;
+            return line;
+        }
+
+        private void close() {
+            closed = true;
+            if (!finished) {
+                finished = true;
+                execution.cancel();
+                queue.clear();
+            }
+        }
+    }
+}
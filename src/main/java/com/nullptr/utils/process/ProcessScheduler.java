@@ -0,0 +1,399 @@
+package com.nullptr.utils.process;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 进程调度器，限制同时运行的进程数。达到上限时启动进程的调用线程进入等待队列，
+ * 队列已满时拒绝启动，由此向调用方施加背压。读写进程管道的线程均为守护线程，数量与进程上限成正比，
+ * 也可以使用虚拟线程（JDK 21及以上）。调度器同时统计运行与排队的进程数、排队等待时间和退出码，
+ * 并将每个进程的执行情况通知给已添加的监听器
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @version 1.1 2026-10-18 增加进程执行监听器
+ * @since 1.0 2026-10-18
+ * @see ProcessRunner#scheduler(ProcessScheduler)
+ */
+public class ProcessScheduler implements Closeable {
+    /** 默认等待队列长度 */
+    public static final int DEFAULT_MAX_QUEUED_PROCESSES = 1024;
+    /** 每个进程的管道读写任务数：标准输入、标准输出和错误输出 */
+    private static final int PUMPS_PER_PROCESS = 3;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final Log logger = LogFactory.getLog(ProcessScheduler.class);
+
+    private final int maxConcurrentProcesses;
+    private final int maxQueuedProcesses;
+    /** 运行许可 */
+    private final Semaphore running;
+    /** 准入许可，包括运行和排队 */
+    private final Semaphore admission;
+    private final ExecutorService pumpExecutor;
+
+    private final AtomicInteger queuedCount = new AtomicInteger();
+    private final LongAdder startedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final ConcurrentMap<Integer, LongAdder> exitCodeCounts = new ConcurrentHashMap<>();
+    private final List<ProcessListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 创建调度器，使用默认的等待队列长度和守护线程
+     *
+     * @param maxConcurrentProcesses 同时运行的进程数上限
+     */
+    public ProcessScheduler(int maxConcurrentProcesses) {
+        this(maxConcurrentProcesses, DEFAULT_MAX_QUEUED_PROCESSES, false);
+    }
+
+    /**
+     * 创建调度器
+     *
+     * @param maxConcurrentProcesses 同时运行的进程数上限
+     * @param maxQueuedProcesses 等待运行的进程数上限，为0时达到运行上限即拒绝
+     * @param virtualThreads 是否使用虚拟线程读写管道，运行环境不支持时使用守护线程
+     */
+    public ProcessScheduler(int maxConcurrentProcesses, int maxQueuedProcesses, boolean virtualThreads) {
+        if (maxConcurrentProcesses <= 0) {
+            throw new IllegalArgumentException("进程数上限必须大于0");
+        }
+        if (maxQueuedProcesses < 0) {
+            throw new IllegalArgumentException("等待队列长度不能小于0");
+        }
+        this.maxConcurrentProcesses = maxConcurrentProcesses;
+        this.maxQueuedProcesses = maxQueuedProcesses;
+        this.running = new Semaphore(maxConcurrentProcesses, true);
+        this.admission = new Semaphore((int) Math.min(Integer.MAX_VALUE,
+                (long) maxConcurrentProcesses + maxQueuedProcesses));
+        this.pumpExecutor = virtualThreads ? newVirtualThreadExecutor(maxConcurrentProcesses)
+                : newDaemonExecutor(maxConcurrentProcesses);
+    }
+
+    /**
+     * 获取默认调度器，进程数上限为处理器数的2倍且不少于4，默认调度器不能被关闭
+     *
+     * @return 默认调度器
+     */
+    public static ProcessScheduler getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 在调度器中启动进程，达到进程数上限时等待
+     *
+     * @param launcher 启动进程并创建执行句柄
+     * @return 执行句柄
+     * @throws IOException 启动进程失败、等待时被中断时抛出
+     * @throws RejectedExecutionException 等待队列已满或调度器已关闭时抛出
+     */
+    ProcessExecution start(Launcher launcher) throws IOException {
+        return startGroup(1, (executor, register) -> register.accept(launcher.launch(executor))).get(0);
+    }
+
+    /**
+     * 在调度器中同时启动一组进程，一次性获取所有进程的运行名额，避免多组进程各自占用部分名额而相互等待
+     *
+     * @param count 进程数
+     * @param launcher 启动进程，并登记每个进程的执行句柄
+     * @return 已登记的执行句柄
+     * @throws IOException 启动进程失败、等待时被中断时抛出
+     * @throws RejectedExecutionException 等待队列已满或调度器已关闭时抛出
+     * @throws IllegalArgumentException 进程数超过进程数上限时抛出
+     */
+    List<ProcessExecution> startGroup(int count, GroupLauncher launcher) throws IOException {
+        if (count > maxConcurrentProcesses) {
+            throw new IllegalArgumentException("同时启动的进程数" + count + "超过进程数上限" + maxConcurrentProcesses);
+        }
+        if (pumpExecutor.isShutdown()) {
+            rejectedCount.increment();
+            throw new RejectedExecutionException("进程调度器已关闭");
+        }
+        if (!admission.tryAcquire(count)) {
+            rejectedCount.increment();
+            throw new RejectedExecutionException("等待运行的进程数已达上限" + maxQueuedProcesses);
+        }
+        long waitStart = System.nanoTime();
+        queuedCount.addAndGet(count);
+        try {
+            running.acquire(count);
+        } catch (InterruptedException e) {
+            admission.release(count);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待运行进程时被中断");
+        } finally {
+            queuedCount.addAndGet(-count);
+        }
+        recordWait(System.nanoTime() - waitStart);
+        List<ProcessExecution> executions = new ArrayList<>(count);
+        try {
+            launcher.launch(pumpExecutor, execution -> {
+                executions.add(execution);
+                register(execution);
+            });
+        } catch (IOException | RuntimeException e) {
+            failedCount.increment();
+            throw e;
+        } finally {
+            // 未启动的进程归还名额
+            release(count - executions.size());
+        }
+        return executions;
+    }
+
+    /**
+     * 添加进程执行监听器，只对之后启动的进程生效
+     *
+     * @param listener 监听器
+     */
+    public void addListener(ProcessListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 移除进程执行监听器
+     *
+     * @param listener 监听器
+     */
+    public void removeListener(ProcessListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void register(ProcessExecution execution) {
+        startedCount.increment();
+        List<ProcessListener> notified = new ArrayList<>(listeners);
+        for (ProcessListener listener : notified) {
+            try {
+                listener.onStarted(execution.getCommand());
+            } catch (RuntimeException e) {
+                logger.warn("进程执行监听器处理失败", e);
+            }
+        }
+        execution.completion().whenComplete((exitCode, error) -> {
+            if (error != null) {
+                failedCount.increment();
+            }
+            Process process = execution.getProcess();
+            if (!process.isAlive()) {
+                exitCodeCounts.computeIfAbsent(process.exitValue(), code -> new LongAdder()).increment();
+            }
+            completedCount.increment();
+            release(1);
+            if (!notified.isEmpty()) {
+                ProcessEvent event = execution.toEvent(error);
+                for (ProcessListener listener : notified) {
+                    try {
+                        listener.onCompleted(event);
+                    } catch (RuntimeException e) {
+                        logger.warn("进程执行监听器处理失败", e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取同时运行的进程数上限
+     *
+     * @return 进程数上限
+     */
+    public int getMaxConcurrentProcesses() {
+        return maxConcurrentProcesses;
+    }
+
+    /**
+     * 获取等待运行的进程数上限
+     *
+     * @return 等待队列长度
+     */
+    public int getMaxQueuedProcesses() {
+        return maxQueuedProcesses;
+    }
+
+    /**
+     * 获取正在运行的进程数，包括已退出但管道尚未读取完毕的进程
+     *
+     * @return 正在运行的进程数
+     */
+    public int getRunningCount() {
+        return maxConcurrentProcesses - running.availablePermits();
+    }
+
+    /**
+     * 获取等待运行的进程数
+     *
+     * @return 等待运行的进程数
+     */
+    public int getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    /**
+     * 获取已启动的进程总数
+     *
+     * @return 已启动的进程总数
+     */
+    public long getStartedCount() {
+        return startedCount.sum();
+    }
+
+    /**
+     * 获取已完成的进程总数
+     *
+     * @return 已完成的进程总数
+     */
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    /**
+     * 获取启动失败或管道读写失败的进程总数
+     *
+     * @return 失败的进程总数
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * 获取因等待队列已满或调度器已关闭而被拒绝的次数
+     *
+     * @return 被拒绝的次数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 获取所有进程排队等待的总时间
+     *
+     * @param unit 时间单位
+     * @return 等待总时间
+     */
+    public long getTotalWaitTime(TimeUnit unit) {
+        return unit.convert(totalWaitNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取单个进程排队等待的最长时间
+     *
+     * @param unit 时间单位
+     * @return 最长等待时间
+     */
+    public long getMaxWaitTime(TimeUnit unit) {
+        return unit.convert(maxWaitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取各退出码出现的次数
+     *
+     * @return 退出码与次数的映射，按退出码排序
+     */
+    public Map<Integer, Long> getExitCodeCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        exitCodeCounts.forEach((code, count) -> counts.put(code, count.sum()));
+        return counts;
+    }
+
+    /**
+     * 关闭调度器，不再接受新的进程，已启动的进程继续运行直至结束。默认调度器不能被关闭
+     */
+    @Override
+    public void close() {
+        if (this == Holder.INSTANCE) {
+            throw new UnsupportedOperationException("默认进程调度器不能被关闭");
+        }
+        pumpExecutor.shutdown();
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void release(int permits) {
+        if (permits > 0) {
+            running.release(permits);
+            admission.release(permits);
+        }
+    }
+
+    /**
+     * 创建守护线程池，线程数为进程上限的3倍，空闲线程会被回收
+     */
+    private static ExecutorService newDaemonExecutor(int maxConcurrentProcesses) {
+        int threads = (int) Math.min(Integer.MAX_VALUE, (long) maxConcurrentProcesses * PUMPS_PER_PROCESS);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "process-pump-" + THREAD_COUNT.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 创建虚拟线程池，运行环境不支持虚拟线程时使用守护线程池
+     */
+    private static ExecutorService newVirtualThreadExecutor(int maxConcurrentProcesses) {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return newDaemonExecutor(maxConcurrentProcesses);
+        }
+    }
+
+    /**
+     * 启动进程
+     */
+    @FunctionalInterface
+    interface Launcher {
+        /**
+         * 启动进程，并在线程池中开始读写管道
+         *
+         * @param pumpExecutor 读写管道的线程池
+         * @return 执行句柄
+         * @throws IOException 启动进程失败时抛出
+         */
+        ProcessExecution launch(Executor pumpExecutor) throws IOException;
+    }
+
+    /**
+     * 启动一组进程
+     */
+    @FunctionalInterface
+    interface GroupLauncher {
+        /**
+         * 启动进程，并在线程池中开始读写管道，每个启动的进程都需登记
+         *
+         * @param pumpExecutor 读写管道的线程池
+         * @param register 登记执行句柄
+         * @throws IOException 启动进程失败时抛出，已登记的进程仍由调度器管理
+         */
+        void launch(Executor pumpExecutor, Consumer<ProcessExecution> register) throws IOException;
+    }
+
+    private static class Holder {
+        private static final ProcessScheduler INSTANCE = new ProcessScheduler(
+                Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    }
+}
@@ -1,32 +1,31 @@
 package com.nullptr.utils.process;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 系统进程工具
  *
  * @author majl
  * @version 1.0 2020-9-24
+ * @version 1.1 2026-10-18 带输入数据执行命令时同时读写进程管道，输出按行写入日志，不再整体缓存
+ * @version 1.2 2026-10-18 进程由进程调度器启动，限制同时运行的进程数，不再使用无界线程池
+ * @version 1.3 2026-10-18 新增带执行时限的执行方法，回调处理完成后才结束执行
+ * @version 1.4 2026-10-18 输入流以字节形式直接写入进程，不再读取为字符串并重复转换编码
+ * @version 1.5 2026-10-18 退出码不为0时写入警告日志，执行指标可通过{@link ProcessScheduler#addListener(ProcessListener)}采集
  * @since 1.0 2020-9-24
  */
 public class ProcessUtils {
-    /** 获取系统运行环境 */
-    private static final Runtime SYS_RUNTIME = Runtime.getRuntime();
     /** 系统默认字符编码 */
     public static final Charset SYS_CHARSET;
 
     private static final Log logger = LogFactory.getLog(ProcessUtils.class);
-    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
 
     static {
         // 获取系统名称
@@ -48,25 +47,29 @@ public class ProcessUtils {
      */
     public static String execute(String command)
             throws IOException, InterruptedException {
-        // 获取命令执行的进程
-        Process process = SYS_RUNTIME.exec(command);
-        Future<String> future1 = EXECUTOR.submit(()-> IOUtils.toString(process.getInputStream(), SYS_CHARSET));
-        Future<String> future2 = EXECUTOR.submit(()-> IOUtils.toString(process.getErrorStream(), SYS_CHARSET));
+        return execute(command, 0, TimeUnit.MILLISECONDS);
+    }
 
-        process.waitFor();
-        int exitCode =  process.exitValue();
-        try {
-           if (exitCode == 0) {
-               return future1.get();
-           } else {
-               return future2.get();
-           }
-        } catch (ExecutionException e) {
-            e.printStackTrace();
-        } finally {
-            process.destroy();
-        }
-        return "";
+    /**
+     * 在时限内执行系统命令，并使用指定字符编码获取执行结果，超时后进程被销毁
+     *
+     * @param command 系统命令字符串
+     * @param timeout 执行时限，为0时不限制
+     * @param unit 时间单位
+     * @return 命令执行结果，退出码为0时为标准输出，否则为错误输出
+     * @throws java.io.InterruptedIOException 执行超时时抛出
+     * @since 1.3
+     */
+    public static String execute(String command, long timeout, TimeUnit unit)
+            throws IOException, InterruptedException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+        int exitCode = new ProcessRunner(command)
+                .timeout(timeout, unit)
+                .onOutput(output::write)
+                .onError(error::write)
+                .run();
+        return (exitCode == 0 ? output : error).toString(SYS_CHARSET.name());
     }
 
     /**
@@ -78,7 +81,13 @@ public class ProcessUtils {
      */
     public static void execute(String command, InputStream input)
             throws IOException, InterruptedException {
-        execute(command, IOUtils.toString(input, SYS_CHARSET));
+        // 输入流由调用方关闭
+        int exitCode = new ProcessRunner(command)
+                .input(new CloseShieldInputStream(input))
+                .onOutputLine(logger::info)
+                .onErrorLine(logger::warn)
+                .run();
+        checkExitCode(command, exitCode);
     }
 
     /**
@@ -90,7 +99,7 @@ public class ProcessUtils {
      */
     public static void execute(String command, String data)
             throws IOException, InterruptedException {
-        execute(command, data.getBytes());
+        execute(command, data.getBytes(SYS_CHARSET));
     }
 
     /**
@@ -102,17 +111,13 @@ public class ProcessUtils {
      */
     public static void execute(String command, byte[] bytes)
             throws IOException, InterruptedException {
-        Process process = SYS_RUNTIME.exec(command);
-        try(OutputStream stream = process.getOutputStream()) {
-            String data = new String(bytes);
-            stream.write(data.getBytes(SYS_CHARSET));
-        }
-
-        logger.info(IOUtils.toString(process.getInputStream(), SYS_CHARSET));
-        logger.warn(IOUtils.toString(process.getErrorStream(), SYS_CHARSET));
-        // 等待进程返回并销毁进程
-        process.waitFor();
-        process.destroy();
+        // 输入、输出与错误输出同时处理，避免子进程因管道写满而阻塞
+        int exitCode = new ProcessRunner(command)
+                .input(bytes)
+                .onOutputLine(logger::info)
+                .onErrorLine(logger::warn)
+                .run();
+        checkExitCode(command, exitCode);
     }
 
     /**
@@ -127,13 +132,43 @@ public class ProcessUtils {
                                Function inputCallback,
                                Function errorCallback)
             throws InterruptedException, IOException {
-        Process process = SYS_RUNTIME.exec(command);
-        // 使用单独的线程来对执行结果输入流与错误输入流进行处理
-        EXECUTOR.execute(()-> inputCallback.process(process.getInputStream()));
-        EXECUTOR.execute(()-> errorCallback.process(process.getErrorStream()));
-        // 等待进程返回并销毁进程
-        process.waitFor();
-        process.destroy();
+        // 使用单独的线程来对执行结果输入流与错误输入流进行处理，等待进程返回且回调处理完成
+        int exitCode = new ProcessRunner(command)
+                .onOutputStream(inputCallback)
+                .onErrorStream(errorCallback)
+                .run();
+        checkExitCode(command, exitCode);
+    }
+
+    /**
+     * 在时限内执行系统命令，并使用回调函数处理进程执行结果。方法立即返回执行句柄，
+     * 可通过句柄等待执行完成或取消执行，超时或取消后进程被销毁，回调处理随之结束
+     *
+     * @param command 系统命令字符串
+     * @param inputCallback 执行结果处理接口
+     * @param errorCallback 错误信息处理接口
+     * @param timeout 执行时限，为0时不限制
+     * @param unit 时间单位
+     * @return 执行句柄
+     * @since 1.3
+     */
+    public static ProcessExecution execute(String command,
+                                           Function inputCallback,
+                                           Function errorCallback,
+                                           long timeout,
+                                           TimeUnit unit)
+            throws IOException {
+        return new ProcessRunner(command)
+                .timeout(timeout, unit)
+                .onOutputStream(inputCallback)
+                .onErrorStream(errorCallback)
+                .start();
+    }
+
+    private static void checkExitCode(String command, int exitCode) {
+        if (exitCode != 0) {
+            logger.warn("命令[" + command + "]退出码为" + exitCode);
+        }
     }
 
     /**
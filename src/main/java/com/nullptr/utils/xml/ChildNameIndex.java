@@ -0,0 +1,123 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.Element;
+import org.dom4j.Node;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 子元素Name属性索引，记录父元素中Name属性值与子元素的对应关系，用于按名称获取子元素。
+ * 索引在首次查询时创建，通过{@link XmlUtils#createChildElement(Element, String, String)}添加的子元素会同步加入索引。
+ * 通过其他方式修改子节点时，索引根据子节点数量的变化或查询结果的校验在下次查询时重建。
+ * 直接修改子元素的Name属性或移除后添加子元素不会改变子节点数量，因此未命中时仍逐个比较子元素的Name属性，
+ * 确认子元素不存在后才返回null。查询已存在的子元素为常数时间，未命中时需遍历一次子元素
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @version 1.1 2026-10-18 未命中时逐个比较子元素，避免索引过期时重复创建子元素
+ * @since 1.0 2026-10-18
+ */
+class ChildNameIndex {
+    /** Name属性名称 */
+    static final String NAME_ATTRIBUTE = "Name";
+    /** 父元素与索引的映射，父元素不再被引用时索引随之回收 */
+    private static final Map<Element, ChildNameIndex> INDEXES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** 子元素使用弱引用，避免子元素对父元素的引用导致索引无法回收 */
+    private final Map<String, WeakReference<Element>> children = new HashMap<>();
+    /** 创建或更新索引时父元素的子节点数量 */
+    private int nodeCount;
+
+    private ChildNameIndex() {
+    }
+
+    /**
+     * 根据Name属性值查找子元素，父元素不存在索引时创建索引
+     *
+     * @param parent 父元素
+     * @param name Name属性值
+     * @return 第一个Name属性值相同的子元素，不存在时返回null
+     */
+    static Element find(Element parent, String name) {
+        ChildNameIndex index = INDEXES.computeIfAbsent(parent, key -> new ChildNameIndex());
+        synchronized (index) {
+            boolean rebuilt = parent.nodeCount() != index.nodeCount;
+            if (rebuilt) {
+                index.rebuild(parent);
+            }
+            Element element = index.get(name);
+            if (element != null && (element.getParent() != parent
+                    || !name.equals(element.attributeValue(NAME_ATTRIBUTE)))) {
+                // 子元素已被移除或修改了Name属性
+                index.rebuild(parent);
+                rebuilt = true;
+                element = index.get(name);
+            }
+            if (element == null && !rebuilt) {
+                element = scan(parent, name);
+                if (element != null) {
+                    // 子元素在索引之外修改了Name属性
+                    index.rebuild(parent);
+                }
+            }
+            return element;
+        }
+    }
+
+    /**
+     * 子元素添加至父元素后同步更新索引，父元素不存在索引时不做处理
+     *
+     * @param parent 父元素
+     * @param child 已添加的子元素
+     * @param name 子元素的Name属性值
+     */
+    static void added(Element parent, Element child, String name) {
+        ChildNameIndex index = INDEXES.get(parent);
+        if (index == null) {
+            return;
+        }
+        synchronized (index) {
+            // 索引与父元素不同步时留待下次查询重建
+            if (parent.nodeCount() == index.nodeCount + 1) {
+                index.nodeCount++;
+                if (name != null && index.get(name) == null) {
+                    index.children.put(name, new WeakReference<>(child));
+                }
+            }
+        }
+    }
+
+    private Element get(String name) {
+        WeakReference<Element> reference = children.get(name);
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * 按文档顺序查找Name属性值相同的子元素，按下标访问子节点，避免elements()每次复制子元素列表
+     */
+    private static Element scan(Element parent, String name) {
+        for (int i = 0, count = parent.nodeCount(); i < count; i++) {
+            Node node = parent.node(i);
+            if (node instanceof Element && name.equals(((Element) node).attributeValue(NAME_ATTRIBUTE))) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    private void rebuild(Element parent) {
+        children.clear();
+        for (Element element : parent.elements()) {
+            String name = element.attributeValue(NAME_ATTRIBUTE);
+            if (name != null && !children.containsKey(name)) {
+                children.put(name, new WeakReference<>(element));
+            }
+        }
+        nodeCount = parent.nodeCount();
+    }
+}
@@ -0,0 +1,123 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.io.SAXReader;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.DefaultHandler2;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.InputStream;
+import java.io.StringReader;
+
+/**
+ * 线程内复用的SAXReader，避免每次解析都通过服务查找创建解析器工厂和解析器。
+ * 解析器关闭了外部实体与外部DTD的加载，文档中的外部实体引用被解析为空内容。
+ * 解析完成后解析器的事件处理器被替换为空处理器，空闲的解析器不会持有上一次解析得到的文档
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @version 1.1 2026-10-18 解析完成后清除解析器持有的事件处理器
+ * @since 1.0 2026-10-18
+ */
+class SAXReaderPool {
+    /** 已配置的解析器工厂，只在创建解析器时使用 */
+    private static final SAXParserFactory PARSER_FACTORY = createParserFactory();
+    /** 每个线程空闲的解析器，使用中时为空，嵌套解析时会创建新的解析器 */
+    private static final ThreadLocal<SAXReader> IDLE_READER = new ThreadLocal<>();
+    /** 不处理任何事件的处理器，替换空闲解析器中引用了文档的处理器 */
+    private static final DefaultHandler2 NO_OP_HANDLER = new DefaultHandler2();
+    private static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+    private static final String DECLARATION_HANDLER = "http://xml.org/sax/properties/declaration-handler";
+
+    private SAXReaderPool() {
+    }
+
+    /**
+     * 使用当前线程的解析器解析输入流
+     *
+     * @param input 输入流，不会被关闭
+     * @param systemId 文档的系统标识，可为空
+     * @return 解析得到的文档
+     * @throws DocumentException 解析失败时抛出
+     */
+    static Document read(InputStream input, String systemId) throws DocumentException {
+        SAXReader reader = IDLE_READER.get();
+        if (reader == null) {
+            reader = createReader();
+        } else {
+            IDLE_READER.remove();
+        }
+        try {
+            InputSource source = new InputSource(input);
+            source.setSystemId(systemId);
+            return reader.read(source);
+        } finally {
+            clearHandlers(reader);
+            IDLE_READER.set(reader);
+        }
+    }
+
+    /**
+     * SAXReader在解析时为XMLReader设置的处理器持有正在构建的文档，解析完成后替换为空处理器
+     */
+    private static void clearHandlers(SAXReader reader) {
+        XMLReader xmlReader;
+        try {
+            xmlReader = reader.getXMLReader();
+        } catch (SAXException e) {
+            return;
+        }
+        xmlReader.setContentHandler(NO_OP_HANDLER);
+        xmlReader.setDTDHandler(NO_OP_HANDLER);
+        xmlReader.setErrorHandler(NO_OP_HANDLER);
+        setProperty(xmlReader, LEXICAL_HANDLER, NO_OP_HANDLER);
+        setProperty(xmlReader, DECLARATION_HANDLER, NO_OP_HANDLER);
+    }
+
+    private static void setProperty(XMLReader xmlReader, String name, Object value) {
+        try {
+            xmlReader.setProperty(name, value);
+        } catch (SAXException e) {
+            // 解析器不支持此属性，SAXReader也不会设置
+        }
+    }
+
+    private static SAXReader createReader() throws DocumentException {
+        XMLReader xmlReader;
+        try {
+            xmlReader = PARSER_FACTORY.newSAXParser().getXMLReader();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new DocumentException("创建XML解析器失败", e);
+        }
+        SAXReader reader = new SAXReader(xmlReader);
+        reader.setEntityResolver((publicId, systemId) -> new InputSource(new StringReader("")));
+        return reader;
+    }
+
+    private static SAXParserFactory createParserFactory() {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setValidating(false);
+        setFeature(factory, XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        setFeature(factory, "http://xml.org/sax/features/external-general-entities", false);
+        setFeature(factory, "http://xml.org/sax/features/external-parameter-entities", false);
+        setFeature(factory, "http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        return factory;
+    }
+
+    /**
+     * 设置解析器特性，不支持的特性被忽略，外部实体仍由实体解析器拦截
+     */
+    private static void setFeature(SAXParserFactory factory, String name, boolean value) {
+        try {
+            factory.setFeature(name, value);
+        } catch (ParserConfigurationException | SAXException e) {
+            // 解析器不支持此特性
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+import org.dom4j.QName;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于StAX的流式XML读取器，按路径匹配元素，每个匹配的元素及其子树被构建为独立的{@link Element}
+ * 交由回调处理，处理完成后即被丢弃，内存占用只与单个匹配子树的大小有关，而与文档大小无关。
+ * <p>
+ * 支持的路径语法为xpath的子集：
+ * <ul>
+ *     <li>/root/items/item 从根元素开始逐级匹配</li>
+ *     <li>//item 或 //items/item 匹配任意层级的元素</li>
+ *     <li>* 匹配任意元素名</li>
+ *     <li>item[@Name='value'] 按属性值过滤，不含引号的item[@Name]表示属性存在</li>
+ * </ul>
+ * 元素名不包含前缀时只比较本地名称。匹配元素的子树中不再继续匹配
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ */
+public class StreamingXmlReader {
+    /** 关闭DTD和外部实体的StAX解析工厂，配置完成后可在多线程中共享 */
+    private static final XMLInputFactory INPUT_FACTORY;
+
+    static {
+        INPUT_FACTORY = XMLInputFactory.newInstance();
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    private final Step[] steps;
+    private final boolean needAttributes;
+
+    /**
+     * 创建读取器
+     *
+     * @param path 匹配路径
+     * @throws IllegalArgumentException 路径不合法时抛出
+     */
+    public StreamingXmlReader(String path) {
+        this.steps = parse(path);
+        boolean attributes = false;
+        for (Step step : steps) {
+            attributes |= step.attributeName != null;
+        }
+        this.needAttributes = attributes;
+    }
+
+    /**
+     * 读取文件并处理匹配的元素
+     *
+     * @param fileName 文件名
+     * @param handler 元素回调
+     * @return 匹配的元素数
+     * @throws IOException 读取或解析失败时抛出
+     */
+    public long read(String fileName, Handler handler) throws IOException {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(fileName))) {
+            return read(input, handler);
+        }
+    }
+
+    /**
+     * 读取输入流并处理匹配的元素，字符编码由XML声明确定
+     *
+     * @param input 输入流
+     * @param handler 元素回调
+     * @return 匹配的元素数
+     * @throws IOException 读取或解析失败时抛出
+     */
+    public long read(InputStream input, Handler handler) throws IOException {
+        try {
+            return read(INPUT_FACTORY.createXMLStreamReader(input), handler);
+        } catch (XMLStreamException e) {
+            throw new IOException("解析XML失败", e);
+        }
+    }
+
+    /**
+     * 读取字符流并处理匹配的元素
+     *
+     * @param reader 字符流
+     * @param handler 元素回调
+     * @return 匹配的元素数
+     * @throws IOException 读取或解析失败时抛出
+     */
+    public long read(Reader reader, Handler handler) throws IOException {
+        try {
+            return read(INPUT_FACTORY.createXMLStreamReader(reader), handler);
+        } catch (XMLStreamException e) {
+            throw new IOException("解析XML失败", e);
+        }
+    }
+
+    private long read(XMLStreamReader reader, Handler handler) throws IOException, XMLStreamException {
+        // 当前路径上各层元素的信息，按层级复用
+        List<Frame> frames = new ArrayList<>();
+        int depth = 0;
+        long count = 0;
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (frames.size() == depth) {
+                        frames.add(new Frame());
+                    }
+                    frames.get(depth).set(reader, needAttributes);
+                    if (matches(frames, steps.length - 1, depth)) {
+                        handler.handle(buildElement(reader));
+                        count++;
+                    } else {
+                        depth++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return count;
+    }
+
+    /**
+     * 判断第step步及之前的步骤能否与第frame层及之前的元素匹配
+     */
+    private boolean matches(List<Frame> frames, int step, int frame) {
+        if (frame < 0 || !steps[step].matches(frames.get(frame))) {
+            return false;
+        }
+        if (step == 0) {
+            return steps[0].descendant || frame == 0;
+        }
+        if (!steps[step].descendant) {
+            return matches(frames, step - 1, frame - 1);
+        }
+        for (int i = frame - 1; i >= 0; i--) {
+            if (matches(frames, step - 1, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从当前开始标签构建完整的元素子树，返回时读取器位于对应的结束标签
+     */
+    private static Element buildElement(XMLStreamReader reader) throws XMLStreamException {
+        Element root = createElement(reader);
+        Element current = root;
+        while (current != null) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    Element child = createElement(reader);
+                    current.add(child);
+                    current = child;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    current = current == root ? null : current.getParent();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    current.addText(reader.getText());
+                    break;
+                case XMLStreamConstants.CDATA:
+                    current.addCDATA(reader.getText());
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    current.addComment(reader.getText());
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    current.addProcessingInstruction(reader.getPITarget(), reader.getPIData());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return root;
+    }
+
+    private static Element createElement(XMLStreamReader reader) {
+        Element element = DocumentHelper.createElement(QName.get(reader.getLocalName(),
+                nullToEmpty(reader.getPrefix()), nullToEmpty(reader.getNamespaceURI())));
+        for (int i = 0, count = reader.getNamespaceCount(); i < count; i++) {
+            String prefix = nullToEmpty(reader.getNamespacePrefix(i));
+            if (element.getNamespaceForPrefix(prefix) == null
+                    || !element.getNamespaceForPrefix(prefix).getURI().equals(reader.getNamespaceURI(i))) {
+                element.add(Namespace.get(prefix, nullToEmpty(reader.getNamespaceURI(i))));
+            }
+        }
+        for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+            element.addAttribute(QName.get(reader.getAttributeLocalName(i),
+                    nullToEmpty(reader.getAttributePrefix(i)), nullToEmpty(reader.getAttributeNamespace(i))),
+                    reader.getAttributeValue(i));
+        }
+        return element;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * 解析匹配路径
+     */
+    private static Step[] parse(String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("匹配路径不能为空");
+        }
+        List<Step> result = new ArrayList<>();
+        int index = 0;
+        // 不以/开头的相对路径视为匹配任意层级
+        boolean descendant = !path.startsWith("/");
+        while (index < path.length()) {
+            if (path.startsWith("//", index)) {
+                descendant = true;
+                index += 2;
+            } else if (path.charAt(index) == '/') {
+                index++;
+            }
+            int end = index;
+            int bracket = 0;
+            while (end < path.length() && (bracket > 0 || path.charAt(end) != '/')) {
+                char c = path.charAt(end);
+                bracket += c == '[' ? 1 : c == ']' ? -1 : 0;
+                end++;
+            }
+            if (end == index) {
+                throw new IllegalArgumentException("匹配路径" + path + "不合法");
+            }
+            result.add(Step.parse(path.substring(index, end), descendant, path));
+            descendant = false;
+            index = end;
+        }
+        return result.toArray(new Step[0]);
+    }
+
+    /**
+     * 元素回调
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * 处理匹配的元素
+         *
+         * @param element 匹配的元素及其子树，不属于任何文档
+         * @throws IOException 处理失败时抛出，读取将被终止
+         */
+        void handle(Element element) throws IOException;
+    }
+
+    /**
+     * 路径中的一步
+     */
+    private static class Step {
+        /** 是否匹配任意层级 */
+        private final boolean descendant;
+        /** 元素名，为null时匹配任意元素 */
+        private final String name;
+        private final String attributeName;
+        /** 属性值，为null时只要求属性存在 */
+        private final String attributeValue;
+
+        private Step(boolean descendant, String name, String attributeName, String attributeValue) {
+            this.descendant = descendant;
+            this.name = name;
+            this.attributeName = attributeName;
+            this.attributeValue = attributeValue;
+        }
+
+        private static Step parse(String text, boolean descendant, String path) {
+            String name = text;
+            String attributeName = null;
+            String attributeValue = null;
+            int bracket = text.indexOf('[');
+            if (bracket >= 0) {
+                if (!text.endsWith("]") || !text.startsWith("@", bracket + 1)) {
+                    throw new IllegalArgumentException("匹配路径" + path + "中的条件不合法，只支持[@属性名='属性值']");
+                }
+                name = text.substring(0, bracket);
+                String predicate = text.substring(bracket + 2, text.length() - 1);
+                int equals = predicate.indexOf('=');
+                if (equals < 0) {
+                    attributeName = predicate.trim();
+                } else {
+                    attributeName = predicate.substring(0, equals).trim();
+                    attributeValue = predicate.substring(equals + 1).trim();
+                    if (attributeValue.length() < 2 || attributeValue.charAt(0) != attributeValue.charAt(
+                            attributeValue.length() - 1) || "'\"".indexOf(attributeValue.charAt(0)) < 0) {
+                        throw new IllegalArgumentException("匹配路径" + path + "中的属性值需使用引号");
+                    }
+                    attributeValue = attributeValue.substring(1, attributeValue.length() - 1);
+                }
+            }
+            return new Step(descendant, "*".equals(name) ? null : name, attributeName, attributeValue);
+        }
+
+        private boolean matches(Frame frame) {
+            if (name != null && !name.equals(frame.localName) && !name.equals(frame.qualifiedName())) {
+                return false;
+            }
+            if (attributeName == null) {
+                return true;
+            }
+            String value = frame.attributes.get(attributeName);
+            return value != null && (attributeValue == null || attributeValue.equals(value));
+        }
+    }
+
+    /**
+     * 当前路径上一层元素的信息
+     */
+    private static class Frame {
+        private String prefix;
+        private String localName;
+        private final Map<String, String> attributes = new HashMap<>();
+
+        private void set(XMLStreamReader reader, boolean needAttributes) {
+            prefix = reader.getPrefix();
+            localName = reader.getLocalName();
+            attributes.clear();
+            if (needAttributes) {
+                for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+                    String attributePrefix = reader.getAttributePrefix(i);
+                    String name = attributePrefix == null || attributePrefix.isEmpty()
+                            ? reader.getAttributeLocalName(i)
+                            : attributePrefix + ":" + reader.getAttributeLocalName(i);
+                    attributes.put(name, reader.getAttributeValue(i));
+                }
+            }
+        }
+
+        private String qualifiedName() {
+            return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+        }
+    }
+}
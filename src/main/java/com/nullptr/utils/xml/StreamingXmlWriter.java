@@ -0,0 +1,347 @@
+package com.nullptr.utils.xml;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 流式XML写入器，与{@link XmlUtils}中创建元素的方法使用相同的概念，但直接将元素写入输出流，
+ * 不在内存中构建元素树。写入时使用可复用的字符缓冲区，写入元素不会产生额外的对象。
+ * 写入器不是线程安全的
+ * <pre>{@code
+ *     try (StreamingXmlWriter writer = new StreamingXmlWriter(output)) {
+ *         writer.writeDeclaration();
+ *         writer.openElement("Config");
+ *         writer.openElement("Group", "db");
+ *         writer.addMultipleChildrenElement("Host", hosts);
+ *         writer.closeElement();
+ *     }
+ * }</pre>
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @version 1.1 2026-10-18 属性值中的换行符、回车符及制表符使用字符引用写入，拒绝XML中不允许的字符
+ * @since 1.0 2026-10-18
+ */
+public class StreamingXmlWriter implements Closeable, Flushable {
+    /** Name属性名称，与XmlUtils中按名称创建元素时使用的属性一致 */
+    private static final String NAME_ATTRIBUTE = "Name";
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final Writer writer;
+    private final char[] buffer;
+    private int position;
+    /** 已打开但未关闭的元素标签名 */
+    private String[] elements = new String[16];
+    private int depth;
+    /** 当前元素的开始标签是否尚未结束，此时还可以添加属性 */
+    private boolean startTagOpen;
+
+    /**
+     * 创建写入器，使用UTF-8编码写入输出流
+     *
+     * @param output 输出流
+     */
+    public StreamingXmlWriter(OutputStream output) {
+        this(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 创建写入器
+     *
+     * @param writer 字符输出流
+     */
+    public StreamingXmlWriter(Writer writer) {
+        this(writer, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 创建写入器
+     *
+     * @param writer 字符输出流
+     * @param bufferSize 字符缓冲区大小
+     */
+    public StreamingXmlWriter(Writer writer, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("缓冲区大小必须大于0");
+        }
+        this.writer = writer;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * 写入UTF-8编码的XML声明，需在写入元素前调用
+     *
+     * @return 当前写入器
+     * @throws IOException 写入失败时抛出
+     */
+    public StreamingXmlWriter writeDeclaration() throws IOException {
+        append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        return this;
+    }
+
+    /**
+     * 打开元素，之后写入的内容均作为此元素的子节点，直到调用{@link #closeElement()}
+     *
+     * @param tagName 标签名
+     * @return 当前写入器
+     * @throws IOException 写入失败时抛出
+     */
+    public StreamingXmlWriter openElement(String tagName) throws IOException {
+        closeStartTag();
+        if (depth == elements.length) {
+            elements = Arrays.copyOf(elements, depth * 2);
+        }
+        elements[depth++] = tagName;
+        append('<');
+        append(tagName);
+        startTagOpen = true;
+        return this;
+    }
+
+    /**
+     * 打开带有Name属性的元素
+     *
+     * @param tagName 标签名
+     * @param name 标签Name属性值
+     * @return 当前写入器
+     * @throws IOException 写入失败时抛出
+     */
+    public StreamingXmlWriter openElement(String tagName, CharSequence name) throws IOException {
+        openElement(tagName);
+        return addAttribute(NAME_ATTRIBUTE, name);
+    }
+
+    /**
+     * 为当前元素添加属性，只能在打开元素后、写入子节点前调用
+     *
+     * @param attributeName 属性名
+     * @param value 属性值
+     * @return 当前写入器
+     * @throws IOException 写入失败时抛出
+     * @throws IllegalArgumentException 属性值包含XML中不允许的字符时抛出
+     */
+    public StreamingXmlWriter addAttribute(String attributeName, CharSequence value) throws IOException {
+        if (!startTagOpen) {
+            throw new IllegalStateException("只能在写入子节点前添加属性");
+        }
+        append(' ');
+        append(attributeName);
+        append("=\"");
+        appendEscaped(value, true);
+        append('"');
+        return this;
+    }
+
+    /**
+     * 添加带有Name属性的空子元素
+     *
+     * @param tagName 标签名
+     * @param name 标签Name属性值
+     * @return 当前写入器
+     * @throws IOException 写入失败时抛出
+     */
+    public StreamingXmlWriter addChildElement(String tagName, CharSequence name) throws IOException {
+        openElement(tagName, name);
+        return closeElement();
+    }
+
+    /**
+     * 添加只包含文本的子元素
+     *
+     * @param tagName 标签名
+     * @param text 文本
+     * @return 当前写入器
+     * @throws IOException 写入失败时抛出
+     */
+    public StreamingXmlWriter addTextElement(String tagName, CharSequence text) throws IOException {
+        openElement(tagName);
+        addText(text);
+        return closeElement();
+    }
+
+    /**
+     * 向当前元素添加若干相同标签名的子元素，每个对象的字符串形式作为子元素的文本
+     *
+     * @param tagName 标签名
+     * @param objects 对应文本
+     * @return 当前写入器
+     * @throws IOException 写入失败时抛出
+     */
+    public StreamingXmlWriter addMultipleChildrenElement(String tagName, List<?> objects) throws IOException {
+        for (Object object : objects) {
+            addTextElement(tagName, object instanceof CharSequence
+                    ? (CharSequence) object : String.valueOf(object));
+        }
+        return this;
+    }
+
+    /**
+     * 向当前元素添加文本
+     *
+     * @param text 文本
+     * @return 当前写入器
+     * @throws IOException 写入失败时抛出
+     * @throws IllegalArgumentException 文本包含XML中不允许的字符时抛出
+     */
+    public StreamingXmlWriter addText(CharSequence text) throws IOException {
+        closeStartTag();
+        appendEscaped(text, false);
+        return this;
+    }
+
+    /**
+     * 关闭当前元素，元素没有子节点时写入自闭合标签
+     *
+     * @return 当前写入器
+     * @throws IOException 写入失败时抛出
+     */
+    public StreamingXmlWriter closeElement() throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("没有需要关闭的元素");
+        }
+        String tagName = elements[--depth];
+        elements[depth] = null;
+        if (startTagOpen) {
+            append("/>");
+            startTagOpen = false;
+        } else {
+            append("</");
+            append(tagName);
+            append('>');
+        }
+        return this;
+    }
+
+    /**
+     * 获取当前打开的元素层数
+     *
+     * @return 元素层数
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * 将缓冲区中的内容写入输出流并刷新
+     *
+     * @throws IOException 写入失败时抛出
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        writer.flush();
+    }
+
+    /**
+     * 关闭所有未关闭的元素并关闭输出流
+     *
+     * @throws IOException 写入失败时抛出
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            while (depth > 0) {
+                closeElement();
+            }
+            flushBuffer();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void closeStartTag() throws IOException {
+        if (startTagOpen) {
+            append('>');
+            startTagOpen = false;
+        }
+    }
+
+    /**
+     * 转义写入文本，属性值中的换行符和制表符使用字符引用写入，避免解析时被规范化为空格；
+     * 回车符同样使用字符引用写入，避免解析时被规范化为换行符
+     *
+     * @throws IllegalArgumentException 文本包含XML中不允许的字符时抛出
+     */
+    private void appendEscaped(CharSequence text, boolean attribute) throws IOException {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\n':
+                    if (attribute) {
+                        append("&#10;");
+                    } else {
+                        append(c);
+                    }
+                    break;
+                case '\t':
+                    if (attribute) {
+                        append("&#9;");
+                    } else {
+                        append(c);
+                    }
+                    break;
+                case '\r':
+                    append("&#13;");
+                    break;
+                case '&':
+                    append("&amp;");
+                    break;
+                case '<':
+                    append("&lt;");
+                    break;
+                case '>':
+                    append("&gt;");
+                    break;
+                case '"':
+                    if (attribute) {
+                        append("&quot;");
+                    } else {
+                        append(c);
+                    }
+                    break;
+                default:
+                    if (Character.isHighSurrogate(c) && i + 1 < length
+                            && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        append(c);
+                        append(text.charAt(++i));
+                    } else if (c < 0x20 || Character.isSurrogate(c) || c == 0xFFFE || c == 0xFFFF) {
+                        throw new IllegalArgumentException(
+                                String.format("文本包含XML中不允许的字符\\u%04X，位置为%d", (int) c, i));
+                    } else {
+                        append(c);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void append(String text) throws IOException {
+        int offset = 0;
+        int length = text.length();
+        while (offset < length) {
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            int count = Math.min(length - offset, buffer.length - position);
+            text.getChars(offset, offset + count, buffer, position);
+            position += count;
+            offset += count;
+        }
+    }
+
+    private void append(char c) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = c;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            writer.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
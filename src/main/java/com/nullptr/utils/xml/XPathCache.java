@@ -0,0 +1,215 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.InvalidXPathException;
+import org.dom4j.Node;
+import org.dom4j.XPathException;
+import org.dom4j.xpath.DefaultNamespaceContext;
+import org.jaxen.Context;
+import org.jaxen.ContextSupport;
+import org.jaxen.JaxenException;
+import org.jaxen.SimpleVariableContext;
+import org.jaxen.XPath;
+import org.jaxen.XPathFunctionContext;
+import org.jaxen.dom4j.Dom4jXPath;
+import org.jaxen.dom4j.DocumentNavigator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已解析XPath表达式缓存，容量有限，超出容量时淘汰最久未使用的表达式，可在多线程中共享。
+ * <p>
+ * 缓存中只保存解析后的表达式，每次查询使用新的上下文，命名空间前缀按查询节点所在文档解析。
+ * 因此不同线程同时查询不同文档时互不影响，缓存也不会持有被查询的文档
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ * @see XmlUtils#selectNode(org.dom4j.Element, String, String)
+ */
+public class XPathCache {
+    /** 默认缓存容量 */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final Map<String, XPath> cache;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * 使用默认容量创建缓存
+     */
+    public XPathCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * 创建缓存
+     *
+     * @param maxSize 最多缓存的表达式数量
+     */
+    public XPathCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0");
+        }
+        this.cache = new LruMap<>(maxSize);
+    }
+
+    /**
+     * 查询符合表达式的所有节点，表达式不存在时解析并缓存
+     *
+     * @param expression xpath表达式
+     * @param node 查询的上下文节点
+     * @return 符合表达式的节点
+     * @throws InvalidXPathException 表达式不合法时抛出
+     * @throws XPathException 查询失败时抛出
+     */
+    public List<Node> selectNodes(String expression, Node node) {
+        return select(get(expression), expression, node);
+    }
+
+    /**
+     * 查询符合表达式的第一个节点，表达式不存在时解析并缓存
+     *
+     * @param expression xpath表达式
+     * @param node 查询的上下文节点
+     * @return 符合表达式的第一个节点，不存在时为null
+     * @throws InvalidXPathException 表达式不合法时抛出
+     * @throws XPathException 查询失败时抛出
+     */
+    public Node selectSingleNode(String expression, Node node) {
+        List<Node> nodes = selectNodes(expression, node);
+        return nodes.isEmpty() ? null : nodes.get(0);
+    }
+
+    /**
+     * 预解析表达式，预解析不计入命中与未命中次数
+     *
+     * @param expressions xpath表达式
+     * @throws InvalidXPathException 表达式不合法时抛出
+     */
+    public void precompile(String... expressions) {
+        for (String expression : expressions) {
+            XPath xpath = compile(expression);
+            synchronized (cache) {
+                cache.put(expression, xpath);
+            }
+        }
+    }
+
+    /**
+     * 获取命中次数
+     *
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 获取未命中次数
+     *
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 获取当前缓存的表达式数量
+     *
+     * @return 表达式数量
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * 清空缓存及命中统计
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        hitCount.reset();
+        missCount.reset();
+    }
+
+    private XPath get(String expression) {
+        XPath xpath;
+        synchronized (cache) {
+            xpath = cache.get(expression);
+        }
+        if (xpath != null) {
+            hitCount.increment();
+            return xpath;
+        }
+        missCount.increment();
+        // 在锁外解析，并发未命中同一表达式时可能重复解析，结果相同
+        xpath = compile(expression);
+        synchronized (cache) {
+            cache.put(expression, xpath);
+        }
+        return xpath;
+    }
+
+    /**
+     * 解析表达式，解析结果可在多线程中共享，查询时需使用{@link #select(XPath, String, Node)}
+     *
+     * @param expression xpath表达式
+     * @return 解析后的表达式
+     * @throws InvalidXPathException 表达式不合法时抛出
+     */
+    static XPath compile(String expression) {
+        try {
+            return new Dom4jXPath(expression);
+        } catch (JaxenException e) {
+            throw new InvalidXPathException(expression, e.getMessage());
+        }
+    }
+
+    /**
+     * 使用新的上下文执行查询，不修改共享的表达式对象
+     *
+     * @param xpath 解析后的表达式
+     * @param expression xpath表达式，用于异常信息
+     * @param node 查询的上下文节点
+     * @return 符合表达式的节点
+     * @throws XPathException 查询失败时抛出
+     */
+    @SuppressWarnings("unchecked")
+    static List<Node> select(XPath xpath, String expression, Node node) {
+        ContextSupport support = new ContextSupport(DefaultNamespaceContext.create(node),
+                XPathFunctionContext.getInstance(), new SimpleVariableContext(), DocumentNavigator.getInstance());
+        Context context = new Context(support);
+        context.setNodeSet(Collections.singletonList(node));
+        try {
+            return (List<Node>) xpath.selectNodes(context);
+        } catch (JaxenException e) {
+            throw new XPathException(expression, e);
+        }
+    }
+
+    /**
+     * 按访问顺序淘汰最久未使用表达式的映射
+     */
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
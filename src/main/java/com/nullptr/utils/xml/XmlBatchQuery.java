@@ -0,0 +1,247 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.DocumentException;
+import org.dom4j.Element;
+import org.dom4j.Node;
+import org.jaxen.XPath;
+
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 批量XPath查询，对多个文档并行执行同一组命名的查询，结果按查询名称以列的形式返回，
+ * 每列依次包含所有文档的查询结果。查询表达式在添加时解析一次，之后在所有文档上复用，
+ * 每次查询使用独立的上下文，命名空间前缀按各自的文档解析
+ * <pre>{@code
+ *     XmlBatchQuery query = new XmlBatchQuery()
+ *             .add("groups", "//Group", "Name")
+ *             .add("hosts", "//Host", null);
+ *     XmlBatchQuery.Result result = query.executeFiles(fileNames);
+ *     List<String> groups = result.getColumn("groups");
+ * }</pre>
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ * @see XmlUtils#selectNodes(Element, String, String)
+ */
+public class XmlBatchQuery {
+    private final List<String> names = new ArrayList<>();
+    private final List<String> expressions = new ArrayList<>();
+    private final List<XPath> xpaths = new ArrayList<>();
+    private final List<String> attributeNames = new ArrayList<>();
+    private final ForkJoinPool pool;
+
+    /**
+     * 创建批量查询，使用公共ForkJoin线程池
+     */
+    public XmlBatchQuery() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 创建批量查询
+     *
+     * @param pool 执行查询的ForkJoin线程池
+     */
+    public XmlBatchQuery(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 添加命名查询
+     *
+     * @param name 查询名称，即结果列名
+     * @param xpath xpath表达式
+     * @param attributeName 属性名称，为空时取节点的文本值
+     * @return 当前批量查询
+     * @throws IllegalArgumentException 查询名称重复时抛出
+     * @throws org.dom4j.InvalidXPathException 表达式不合法时抛出
+     */
+    public XmlBatchQuery add(String name, String xpath, String attributeName) {
+        if (names.contains(name)) {
+            throw new IllegalArgumentException("查询名称" + name + "重复");
+        }
+        XPath compiled = XPathCache.compile(xpath);
+        names.add(name);
+        expressions.add(xpath);
+        xpaths.add(compiled);
+        attributeNames.add(attributeName);
+        return this;
+    }
+
+    /**
+     * 对多个文档或元素执行查询
+     *
+     * @param nodes 文档或元素
+     * @return 查询结果
+     * @throws InterruptedException 等待查询结果时被中断
+     */
+    public Result execute(Collection<? extends Node> nodes) throws InterruptedException {
+        List<? extends Node> list = nodes instanceof List ? (List<? extends Node>) nodes : new ArrayList<>(nodes);
+        return execute(list.size(), list::get);
+    }
+
+    /**
+     * 对文档流中的所有文档执行查询
+     *
+     * @param nodes 文档或元素流
+     * @return 查询结果
+     * @throws InterruptedException 等待查询结果时被中断
+     */
+    public Result execute(Stream<? extends Node> nodes) throws InterruptedException {
+        return execute(nodes.collect(Collectors.toList()));
+    }
+
+    /**
+     * 并行解析多个XML文件并执行查询，文件解析后即被丢弃，解析失败的文件记录在结果中
+     *
+     * @param fileNames 文件名
+     * @return 查询结果
+     * @throws InterruptedException 等待查询结果时被中断
+     */
+    public Result executeFiles(Collection<String> fileNames) throws InterruptedException {
+        List<String> list = new ArrayList<>(fileNames);
+        return execute(list.size(), index -> parse(list.get(index)));
+    }
+
+    private Result execute(int count, IntFunction<Node> source) throws InterruptedException {
+        List<Object> documents;
+        try {
+            documents = pool.submit(() -> IntStream.range(0, count).parallel()
+                    .mapToObj(index -> evaluate(source, index))
+                    .collect(Collectors.toList())).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("执行批量查询失败", e.getCause());
+        }
+        return merge(documents);
+    }
+
+    /**
+     * 对单个文档执行所有查询
+     *
+     * @return 每个查询的结果列表，或解析失败的异常
+     */
+    private Object evaluate(IntFunction<Node> source, int index) {
+        try {
+            Node node = source.apply(index);
+            List<List<String>> values = new ArrayList<>(xpaths.size());
+            for (int i = 0; i < xpaths.size(); i++) {
+                // 解析后的表达式可共享，查询上下文由每个任务单独创建
+                List<Node> selected = XPathCache.select(xpaths.get(i), expressions.get(i), node);
+                List<String> column = new ArrayList<>(selected.size());
+                String attributeName = attributeNames.get(i);
+                for (Node selectedNode : selected) {
+                    column.add(attributeName == null ? selectedNode.getStringValue()
+                            : ((Element) selectedNode).attributeValue(attributeName));
+                }
+                values.add(column);
+            }
+            return values;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Result merge(List<Object> documents) {
+        Result result = new Result(names, documents.size());
+        for (int document = 0; document < documents.size(); document++) {
+            Object values = documents.get(document);
+            if (values instanceof Exception) {
+                result.failures.put(document, (Exception) values);
+                values = Collections.nCopies(names.size(), Collections.emptyList());
+            }
+            for (int i = 0; i < names.size(); i++) {
+                List<String> column = result.columns.get(names.get(i));
+                result.offsets.get(names.get(i))[document] = column.size();
+                column.addAll(((List<List<String>>) values).get(i));
+            }
+        }
+        for (String name : names) {
+            result.offsets.get(name)[documents.size()] = result.columns.get(name).size();
+        }
+        return result;
+    }
+
+    private static Node parse(String fileName) {
+        try {
+            return XmlUtils.parse(Paths.get(fileName));
+        } catch (DocumentException e) {
+            throw new IllegalArgumentException("解析文件" + fileName + "失败", e);
+        }
+    }
+
+    /**
+     * 批量查询结果
+     */
+    public static class Result {
+        private final Map<String, List<String>> columns = new LinkedHashMap<>();
+        private final Map<String, int[]> offsets = new HashMap<>();
+        private final Map<Integer, Exception> failures = new TreeMap<>();
+        private final int documentCount;
+
+        private Result(List<String> names, int documentCount) {
+            this.documentCount = documentCount;
+            for (String name : names) {
+                columns.put(name, new ArrayList<>());
+                offsets.put(name, new int[documentCount + 1]);
+            }
+        }
+
+        /**
+         * 获取查询结果列，依次包含所有文档的查询结果
+         *
+         * @param name 查询名称
+         * @return 查询结果列
+         */
+        public List<String> getColumn(String name) {
+            return columns.get(name);
+        }
+
+        /**
+         * 获取单个文档的查询结果
+         *
+         * @param name 查询名称
+         * @param document 文档序号
+         * @return 该文档的查询结果
+         */
+        public List<String> getColumn(String name, int document) {
+            int[] offset = offsets.get(name);
+            return columns.get(name).subList(offset[document], offset[document + 1]);
+        }
+
+        /**
+         * 获取所有查询结果列
+         *
+         * @return 查询名称与结果列的映射，按查询添加的顺序排列
+         */
+        public Map<String, List<String>> getColumns() {
+            return Collections.unmodifiableMap(columns);
+        }
+
+        /**
+         * 获取解析或查询失败的文档
+         *
+         * @return 文档序号与异常的映射
+         */
+        public Map<Integer, Exception> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+
+        /**
+         * 获取文档数量
+         *
+         * @return 文档数量
+         */
+        public int getDocumentCount() {
+            return documentCount;
+        }
+    }
+}
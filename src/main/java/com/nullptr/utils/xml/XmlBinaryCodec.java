@@ -0,0 +1,510 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * XML元素树的紧凑二进制编码，用于缓存{@link XmlUtils}构建或解析得到的元素树，解码时无需重新解析文本。
+ * <p>
+ * 标签名、属性名、命名空间前缀与URI等名称在首次出现时写入，之后以序号引用；文本以UTF-8字节长度为前缀写入，
+ * 整数使用变长编码。元素、属性、命名空间声明、文本、CDATA、注释、处理指令和实体引用均按原顺序保留，
+ * 编码与解码互为逆过程。文档的DOCTYPE只保留名称、公共标识和系统标识，不保留内部子集中的声明
+ *
+ * @author majl
+ * @version 1.0 2026-10-18
+ * @since 1.0 2026-10-18
+ */
+public class XmlBinaryCodec {
+    /** 数据头，标识编码格式与版本 */
+    private static final byte[] MAGIC = {'D', 'X', 'B', 1};
+
+    private static final int ELEMENT = 1;
+    private static final int DOCUMENT = 2;
+    private static final int TEXT = 3;
+    private static final int CDATA = 4;
+    private static final int COMMENT = 5;
+    private static final int PROCESSING_INSTRUCTION = 6;
+    private static final int ENTITY = 7;
+    private static final int NAMESPACE = 8;
+    private static final int DOCUMENT_TYPE = 9;
+
+    private static final DocumentFactory FACTORY = DocumentFactory.getInstance();
+
+    /** 工具类不能被实例化 */
+    private XmlBinaryCodec() {
+    }
+
+    /**
+     * 编码元素及其子树
+     *
+     * @param element 元素
+     * @return 编码后的数据
+     */
+    public static byte[] encode(Element element) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            encode(element, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * 编码文档
+     *
+     * @param document 文档
+     * @return 编码后的数据
+     */
+    public static byte[] encode(Document document) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            encode(document, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * 编码元素及其子树并写入输出流
+     *
+     * @param element 元素
+     * @param output 输出流，写入完成后不会被关闭
+     * @throws IOException 写入失败时抛出
+     */
+    public static void encode(Element element, OutputStream output) throws IOException {
+        Encoder encoder = new Encoder(output);
+        encoder.writeBytes(MAGIC, 0, MAGIC.length);
+        encoder.writeElement(element);
+        encoder.flush();
+    }
+
+    /**
+     * 编码文档并写入输出流
+     *
+     * @param document 文档
+     * @param output 输出流，写入完成后不会被关闭
+     * @throws IOException 写入失败时抛出
+     */
+    public static void encode(Document document, OutputStream output) throws IOException {
+        Encoder encoder = new Encoder(output);
+        encoder.writeBytes(MAGIC, 0, MAGIC.length);
+        encoder.writeDocument(document);
+        encoder.flush();
+    }
+
+    /**
+     * 解码元素，解码得到的元素不属于任何文档
+     *
+     * @param data 编码后的数据
+     * @return 元素
+     * @throws IOException 数据不合法时抛出
+     */
+    public static Element decodeElement(byte[] data) throws IOException {
+        return new Decoder(data).readRoot(ELEMENT, Element.class);
+    }
+
+    /**
+     * 从输入流解码元素，只读取编码数据本身，读取完成后输入流位于编码数据之后，可继续读取后续数据。
+     * 解码时逐字节读取，未缓冲的输入流建议先包装为{@link BufferedInputStream}
+     *
+     * @param input 输入流，读取完成后不会被关闭
+     * @return 元素
+     * @throws IOException 读取失败或数据不合法时抛出
+     */
+    public static Element decodeElement(InputStream input) throws IOException {
+        return new Decoder(input).readRoot(ELEMENT, Element.class);
+    }
+
+    /**
+     * 解码文档
+     *
+     * @param data 编码后的数据
+     * @return 文档
+     * @throws IOException 数据不合法时抛出
+     */
+    public static Document decodeDocument(byte[] data) throws IOException {
+        return new Decoder(data).readRoot(DOCUMENT, Document.class);
+    }
+
+    /**
+     * 从输入流解码文档，只读取编码数据本身，读取完成后输入流位于编码数据之后，可继续读取后续数据。
+     * 解码时逐字节读取，未缓冲的输入流建议先包装为{@link BufferedInputStream}
+     *
+     * @param input 输入流，读取完成后不会被关闭
+     * @return 文档
+     * @throws IOException 读取失败或数据不合法时抛出
+     */
+    public static Document decodeDocument(InputStream input) throws IOException {
+        return new Decoder(input).readRoot(DOCUMENT, Document.class);
+    }
+
+    /**
+     * 编码器，名称首次出现时写入0和名称本身，之后写入序号加1
+     */
+    private static class Encoder {
+        private final OutputStream output;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private final Map<String, Integer> names = new HashMap<>();
+
+        private Encoder(OutputStream output) {
+            this.output = output;
+        }
+
+        private void writeDocument(Document document) throws IOException {
+            write(DOCUMENT);
+            writeNullableString(document.getXMLEncoding());
+            DocumentType docType = document.getDocType();
+            if (docType == null) {
+                write(0);
+            } else {
+                write(DOCUMENT_TYPE);
+                writeName(docType.getElementName());
+                writeNullableString(docType.getPublicID());
+                writeNullableString(docType.getSystemID());
+            }
+            writeContent(document.content());
+        }
+
+        private void writeElement(Element element) throws IOException {
+            write(ELEMENT);
+            writeQName(element.getQName());
+            int attributeCount = element.attributeCount();
+            writeInt(attributeCount);
+            for (int i = 0; i < attributeCount; i++) {
+                Attribute attribute = element.attribute(i);
+                writeQName(attribute.getQName());
+                writeString(attribute.getValue());
+            }
+            writeContent(element.content());
+        }
+
+        private void writeContent(List<Node> content) throws IOException {
+            writeInt(content.size());
+            for (Node node : content) {
+                switch (node.getNodeType()) {
+                    case Node.ELEMENT_NODE:
+                        writeElement((Element) node);
+                        break;
+                    case Node.TEXT_NODE:
+                        write(TEXT);
+                        writeString(node.getText());
+                        break;
+                    case Node.CDATA_SECTION_NODE:
+                        write(CDATA);
+                        writeString(node.getText());
+                        break;
+                    case Node.COMMENT_NODE:
+                        write(COMMENT);
+                        writeString(node.getText());
+                        break;
+                    case Node.PROCESSING_INSTRUCTION_NODE:
+                        ProcessingInstruction instruction = (ProcessingInstruction) node;
+                        write(PROCESSING_INSTRUCTION);
+                        writeName(instruction.getTarget());
+                        writeString(instruction.getText());
+                        break;
+                    case Node.ENTITY_REFERENCE_NODE:
+                        write(ENTITY);
+                        writeName(node.getName());
+                        writeNullableString(node.getText());
+                        break;
+                    case Node.NAMESPACE_NODE:
+                        Namespace namespace = (Namespace) node;
+                        write(NAMESPACE);
+                        writeName(namespace.getPrefix());
+                        writeName(namespace.getURI());
+                        break;
+                    default:
+                        throw new IllegalArgumentException("不支持的节点类型" + node.getNodeTypeName());
+                }
+            }
+        }
+
+        private void writeQName(QName qName) throws IOException {
+            writeName(qName.getName());
+            writeName(qName.getNamespacePrefix());
+            writeName(qName.getNamespaceURI());
+        }
+
+        private void writeName(String name) throws IOException {
+            Integer index = names.get(name);
+            if (index != null) {
+                writeInt(index + 1);
+            } else {
+                names.put(name, names.size());
+                writeInt(0);
+                writeString(name);
+            }
+        }
+
+        /**
+         * 写入可能为空的字符串，空值写入0，否则写入字节长度加1
+         */
+        private void writeNullableString(String text) throws IOException {
+            if (text == null) {
+                writeInt(0);
+            } else {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                writeInt(bytes.length + 1);
+                writeBytes(bytes, 0, bytes.length);
+            }
+        }
+
+        private void writeString(String text) throws IOException {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        /**
+         * 写入非负整数，每字节7位，最高位表示后续还有字节
+         */
+        private void writeInt(int value) throws IOException {
+            if (buffer.length - position < 5) {
+                flushBuffer();
+            }
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void write(int value) throws IOException {
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+            if (length > buffer.length - position) {
+                flushBuffer();
+                if (length > buffer.length) {
+                    output.write(bytes, offset, length);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        private void flushBuffer() throws IOException {
+            output.write(buffer, 0, position);
+            position = 0;
+        }
+
+        private void flush() throws IOException {
+            flushBuffer();
+            output.flush();
+        }
+    }
+
+    /**
+     * 解码器，数据来自字节数组时直接读取数组；来自输入流时不预读，只读取每个字段声明的长度，
+     * 缓冲区仅用于存放读入的字符串
+     */
+    private static class Decoder {
+        private final InputStream input;
+        private byte[] buffer;
+        private int position;
+        private int limit;
+        private String[] names = new String[64];
+        private int nameCount;
+        /** 按名称、前缀、URI的序号缓存QName */
+        private final Map<Long, QName> qNames = new HashMap<>();
+
+        private Decoder(byte[] data) {
+            this.input = null;
+            this.buffer = data;
+            this.limit = data.length;
+        }
+
+        private Decoder(InputStream input) {
+            this.input = input;
+            this.buffer = new byte[256];
+        }
+
+        private <T> T readRoot(int type, Class<T> rootClass) throws IOException {
+            for (byte magic : MAGIC) {
+                if (read() != magic) {
+                    throw new IOException("数据不是XML二进制编码或版本不受支持");
+                }
+            }
+            int actual = read();
+            if (actual != type) {
+                throw new IOException("数据中不是" + (type == ELEMENT ? "元素" : "文档"));
+            }
+            return rootClass.cast(type == ELEMENT ? readElement() : readDocument());
+        }
+
+        private Document readDocument() throws IOException {
+            Document document = FACTORY.createDocument(readNullableString());
+            if (read() == DOCUMENT_TYPE) {
+                document.setDocType(FACTORY.createDocType(readName(), readNullableString(), readNullableString()));
+            }
+            int count = readInt();
+            for (int i = 0; i < count; i++) {
+                int type = read();
+                switch (type) {
+                    case ELEMENT:
+                        document.add(readElement());
+                        break;
+                    case COMMENT:
+                        document.addComment(readString());
+                        break;
+                    case PROCESSING_INSTRUCTION:
+                        document.addProcessingInstruction(readName(), readString());
+                        break;
+                    default:
+                        throw new IOException("文档中不能包含节点类型" + type);
+                }
+            }
+            return document;
+        }
+
+        private Element readElement() throws IOException {
+            Element element = FACTORY.createElement(readQName());
+            int attributeCount = readInt();
+            for (int i = 0; i < attributeCount; i++) {
+                element.add(FACTORY.createAttribute(element, readQName(), readString()));
+            }
+            int count = readInt();
+            for (int i = 0; i < count; i++) {
+                int type = read();
+                switch (type) {
+                    case ELEMENT:
+                        element.add(readElement());
+                        break;
+                    case TEXT:
+                        element.addText(readString());
+                        break;
+                    case CDATA:
+                        element.addCDATA(readString());
+                        break;
+                    case COMMENT:
+                        element.addComment(readString());
+                        break;
+                    case PROCESSING_INSTRUCTION:
+                        element.addProcessingInstruction(readName(), readString());
+                        break;
+                    case ENTITY:
+                        element.addEntity(readName(), readNullableString());
+                        break;
+                    case NAMESPACE:
+                        element.add(Namespace.get(readName(), readName()));
+                        break;
+                    default:
+                        throw new IOException("元素中不能包含节点类型" + type);
+                }
+            }
+            return element;
+        }
+
+        private QName readQName() throws IOException {
+            int name = readNameIndex();
+            int prefix = readNameIndex();
+            int uri = readNameIndex();
+            // 序号不超过21位时可合并为一个键，绝大多数数据满足此条件
+            if ((name | prefix | uri) >>> 21 != 0) {
+                return FACTORY.createQName(names[name], names[prefix], names[uri]);
+            }
+            long key = ((long) name << 42) | ((long) prefix << 21) | uri;
+            QName qName = qNames.get(key);
+            if (qName == null) {
+                qName = FACTORY.createQName(names[name], names[prefix], names[uri]);
+                qNames.put(key, qName);
+            }
+            return qName;
+        }
+
+        private String readName() throws IOException {
+            return names[readNameIndex()];
+        }
+
+        private int readNameIndex() throws IOException {
+            int index = readInt();
+            if (index > 0) {
+                if (index > nameCount) {
+                    throw new IOException("名称序号" + index + "不存在");
+                }
+                return index - 1;
+            }
+            if (nameCount == names.length) {
+                names = Arrays.copyOf(names, nameCount * 2);
+            }
+            names[nameCount] = readString();
+            return nameCount++;
+        }
+
+        private String readNullableString() throws IOException {
+            int length = readInt();
+            return length == 0 ? null : readString(length - 1);
+        }
+
+        private String readString() throws IOException {
+            return readString(readInt());
+        }
+
+        private String readString(int length) throws IOException {
+            if (input == null) {
+                if (length > limit - position) {
+                    throw new EOFException("数据不完整");
+                }
+                String text = new String(buffer, position, length, StandardCharsets.UTF_8);
+                position += length;
+                return text;
+            }
+            if (length > buffer.length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            int offset = 0;
+            while (offset < length) {
+                int count = input.read(buffer, offset, length - offset);
+                if (count < 0) {
+                    throw new EOFException("数据不完整");
+                }
+                offset += count;
+            }
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int readInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = read();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) {
+                        throw new IOException("长度或序号不合法");
+                    }
+                    return value;
+                }
+            }
+            throw new IOException("长度或序号不合法");
+        }
+
+        private int read() throws IOException {
+            if (input != null) {
+                int b = input.read();
+                if (b < 0) {
+                    throw new EOFException("数据不完整");
+                }
+                return b;
+            }
+            if (position == limit) {
+                throw new EOFException("数据不完整");
+            }
+            return buffer[position++] & 0xFF;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.nullptr.utils.xml;
 
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
 import org.dom4j.DocumentHelper;
 import org.dom4j.Element;
 import org.dom4j.Node;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,11 +21,17 @@ import java.util.List;
  * @author majl
  * @version 1.0 2020-9-2
  * @version 1.1 2020-9-10
+ * @version 1.2 2026-10-18 查询节点时使用已编译XPath表达式缓存
+ * @version 1.3 2026-10-18 根据名称属性获取子元素时使用子元素索引，不再逐个比较子元素
+ * @version 1.4 2026-10-18 添加解析文档的方法，使用线程内复用且关闭外部实体的解析器
  * @since 1.0 2020-9-2
  * @see org.dom4j.Document
  * @see Element
  */
 public class XmlUtils {
+    /** 已解析XPath表达式缓存 */
+    private static final XPathCache XPATH_CACHE = new XPathCache();
+
     /** 工具类不能被实例化 */
     private XmlUtils() {
     }
@@ -59,6 +73,7 @@ public class XmlUtils {
     public static Element createChildElement(Element parent, String tagName) {
         Element element = createRootElement(tagName);
         parent.add(element);
+        ChildNameIndex.added(parent, element, null);
         return element;
     }
 
@@ -76,6 +91,7 @@ public class XmlUtils {
     public static Element createChildElement(Element parent, String tagName, String name) {
         Element element = createRootElement(tagName, name);
         parent.add(element);
+        ChildNameIndex.added(parent, element, name);
         return element;
     }
 
@@ -91,6 +107,7 @@ public class XmlUtils {
         objects.stream().forEach(o->{
             Element element = createRootElement(tagName).addText(String.valueOf(o));
             parent.add(element);
+            ChildNameIndex.added(parent, element, null);
         });
     }
 
@@ -106,6 +123,7 @@ public class XmlUtils {
     public static void addMultipleChildrenElement(Element parent, Element... children) {
         for (Element element : children) {
             parent.add(element);
+            ChildNameIndex.added(parent, element, element.attributeValue(ChildNameIndex.NAME_ATTRIBUTE));
         }
     }
 
@@ -117,15 +135,11 @@ public class XmlUtils {
      * @param name 元素名称
      * @return 获取到的元素，如果元素不存在则会创建此元素并返回
      * @since 1.0
+     * @see ChildNameIndex
      */
     public static Element getElementByName(Element parent, String tagName, String name) {
-        for (Object child : parent.elements()) {
-            Element element = (Element) child;
-            if (name.equals(element.attributeValue("Name"))) {
-                return element;
-            }
-        }
-        return createChildElement(parent, tagName, name);
+        Element element = ChildNameIndex.find(parent, name);
+        return element != null ? element : createChildElement(parent, tagName, name);
     }
 
     /**
@@ -138,7 +152,7 @@ public class XmlUtils {
      * @since 1.0
      */
     public static String selectNode(Element element, String xpath, String attributeName) {
-        Node node = element.selectSingleNode(xpath);
+        Node node = XPATH_CACHE.selectSingleNode(xpath, element);
         return ((Element)node).attributeValue(attributeName);
     }
 
@@ -153,11 +167,108 @@ public class XmlUtils {
      */
     public static List<String> selectNodes(Element element, String xpath, String attributeName) {
         List<String> attributeValues = new ArrayList<>();
-        for (Object object : element.selectNodes(xpath)) {
+        for (Object object : XPATH_CACHE.selectNodes(xpath, element)) {
             Node node = (Node)object;
             String attributeValue = ((Element)node).attributeValue(attributeName);
             attributeValues.add(attributeValue);
         }
         return attributeValues;
     }
+
+    /**
+     * 预解析xpath表达式，之后的查询将直接使用已解析的表达式
+     *
+     * @param xpaths xpath表达式
+     * @since 1.2
+     */
+    public static void precompileXPath(String... xpaths) {
+        XPATH_CACHE.precompile(xpaths);
+    }
+
+    /**
+     * 获取查询节点时使用的XPath表达式缓存，可用于查看命中统计
+     *
+     * @return XPath表达式缓存
+     * @since 1.2
+     */
+    public static XPathCache getXPathCache() {
+        return XPATH_CACHE;
+    }
+
+    /**
+     * 解析XML文件，解析器在线程内复用，不加载外部实体与外部DTD
+     *
+     * @param path 文件路径
+     * @return 解析得到的文档
+     * @throws DocumentException 读取或解析失败时抛出
+     * @since 1.4
+     */
+    public static Document parse(Path path) throws DocumentException {
+        try (InputStream input = Files.newInputStream(path)) {
+            return SAXReaderPool.read(input, path.toUri().toString());
+        } catch (IOException e) {
+            throw new DocumentException("读取文件" + path + "失败", e);
+        }
+    }
+
+    /**
+     * 解析缓冲区中的XML内容，解析从缓冲区的当前位置开始，不改变缓冲区的位置
+     *
+     * @param buffer 包含XML内容的缓冲区，可以是内存映射的缓冲区
+     * @return 解析得到的文档
+     * @throws DocumentException 解析失败时抛出
+     * @since 1.4
+     */
+    public static Document parse(ByteBuffer buffer) throws DocumentException {
+        InputStream input = buffer.hasArray()
+                ? new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+                : new ByteBufferInputStream(buffer.duplicate());
+        return SAXReaderPool.read(input, null);
+    }
+
+    /**
+     * 解析输入流中的XML内容，字符编码由XML声明确定
+     *
+     * @param input 输入流，解析完成后不会被关闭
+     * @return 解析得到的文档
+     * @throws DocumentException 解析失败时抛出
+     * @since 1.4
+     */
+    public static Document parse(InputStream input) throws DocumentException {
+        return SAXReaderPool.read(input, null);
+    }
+
+    /**
+     * 读取直接缓冲区的输入流
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
 }
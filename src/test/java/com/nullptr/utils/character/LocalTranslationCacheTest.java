@@ -0,0 +1,151 @@
+package com.nullptr.utils.character;
+
+import net.sf.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * LocalTranslationCache测试
+ *
+ * @author majl
+ */
+public class LocalTranslationCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void evictsLeastRecentlyUsedResults() {
+        LocalTranslationCache cache = new LocalTranslationCache(2, 1, TimeUnit.HOURS);
+        cache.get("en", "zh", "a", () -> result("a"));
+        cache.get("en", "zh", "b", () -> result("b"));
+        cache.get("en", "zh", "a", () -> result("a"));
+        cache.get("en", "zh", "c", () -> result("c"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(1, cache.getHitCount());
+        cache.get("en", "zh", "a", () -> result("a"));
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void diskTierIsCappedAtMaxFiles() {
+        File directory = folder.getRoot();
+        LocalTranslationCache cache = new LocalTranslationCache(100, 1, TimeUnit.HOURS)
+                .persistTo(directory.toPath(), 10);
+        for (int i = 0; i < 25; i++) {
+            String word = "w" + i;
+            cache.get("en", "zh", word, () -> result(word));
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+        assertTrue(files.length <= 10);
+    }
+
+    @Test
+    public void expiredResultsAreReloadedFromMemory() throws Exception {
+        LocalTranslationCache cache = new LocalTranslationCache(10, 300, TimeUnit.MILLISECONDS);
+        AtomicInteger calls = new AtomicInteger();
+        cache.get("en", "zh", "a", () -> counted(calls, "a"));
+        cache.get("en", "zh", "a", () -> counted(calls, "a"));
+        assertEquals(1, calls.get());
+        Thread.sleep(400);
+        cache.get("en", "zh", "a", () -> counted(calls, "a"));
+        assertEquals(2, calls.get());
+        assertEquals(1, cache.getExpiredCount());
+    }
+
+    @Test
+    public void expiredResultsAreReloadedFromDisk() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        new LocalTranslationCache(10, 300, TimeUnit.MILLISECONDS).persistTo(folder.getRoot().toPath())
+                .get("en", "zh", "a", () -> counted(calls, "a"));
+        LocalTranslationCache fresh = new LocalTranslationCache(10, 300, TimeUnit.MILLISECONDS)
+                .persistTo(folder.getRoot().toPath());
+        fresh.get("en", "zh", "a", () -> counted(calls, "a"));
+        assertEquals(1, fresh.getDiskHitCount());
+        assertEquals(1, calls.get());
+
+        Thread.sleep(400);
+        LocalTranslationCache restarted = new LocalTranslationCache(10, 300, TimeUnit.MILLISECONDS)
+                .persistTo(folder.getRoot().toPath());
+        restarted.get("en", "zh", "a", () -> counted(calls, "a"));
+        assertEquals(0, restarted.getDiskHitCount());
+        assertEquals(1, restarted.getExpiredCount());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void concurrentMissesShareOneLoad() throws Exception {
+        LocalTranslationCache cache = new LocalTranslationCache(10, 1, TimeUnit.HOURS);
+        AtomicInteger calls = new AtomicInteger();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<JSONObject>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> cache.get("en", "zh", "a", () -> {
+                    // 等待其余线程都在等待本次加载的结果
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (cache.getCoalescedCount() < threads - 1 && System.nanoTime() < deadline) {
+                        Thread.yield();
+                    }
+                    return counted(calls, "a");
+                })));
+            }
+            for (Future<JSONObject> future : futures) {
+                assertEquals("a", future.get().getString("dst"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(threads - 1, cache.getCoalescedCount());
+    }
+
+    @Test
+    public void errorAndNullResultsAreNotCached() {
+        LocalTranslationCache cache = new LocalTranslationCache(10, 1, TimeUnit.HOURS)
+                .persistTo(folder.getRoot().toPath());
+        JSONObject error = new JSONObject();
+        error.put("error", "54003");
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            assertEquals("54003", cache.get("en", "zh", "a", () -> {
+                calls.incrementAndGet();
+                return error;
+            }).getString("error"));
+            assertNull(cache.get("en", "zh", "b", () -> {
+                calls.incrementAndGet();
+                return null;
+            }));
+        }
+        assertEquals(4, calls.get());
+        assertEquals(0, cache.size());
+        assertEquals(0, folder.getRoot().listFiles((dir, name) -> name.endsWith(".json")).length);
+    }
+
+    private static JSONObject counted(AtomicInteger calls, String word) {
+        calls.incrementAndGet();
+        return result(word);
+    }
+
+    private static JSONObject result(String word) {
+        JSONObject result = new JSONObject();
+        result.put("dst", word);
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+package com.nullptr.utils.character;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.sf.json.JSONObject;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * TranslationUtils及TranslationHttpClient测试，翻译接口由本地HTTP服务模拟
+ *
+ * @author majl
+ */
+public class TranslationUtilsTest {
+    private static final String RESPONSE = "{\"errorCode\":\"0\",\"query\":\"hello\",\"translation\":[\"你好\"]}";
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private String url;
+    private volatile int status = 200;
+    private volatile CountDownLatch received;
+    private volatile CountDownLatch release;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    /** 服务端看到的客户端端口，每个TCP连接对应一个端口 */
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api", this::handle);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+        TranslationUtils.initApiUrl(url);
+        TranslationUtils.initConfig("key", "secret");
+        TranslationUtils.initHttpClient(null);
+    }
+
+    @After
+    public void tearDown() {
+        TranslationUtils.shutdown();
+        TranslationUtils.initApiUrl(null);
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void requestsReusePooledConnection() throws IOException {
+        try (TranslationHttpClient client = new TranslationHttpClient()) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals(RESPONSE, client.post(url, Collections.singletonList(new BasicNameValuePair("q", "hello"))));
+            }
+            PoolStats stats = client.getPoolStats();
+            assertEquals(0, stats.getLeased());
+            assertEquals(1, stats.getAvailable());
+            assertEquals(5, requestCount.get());
+            assertEquals(1, clientPorts.size());
+        }
+    }
+
+    @Test
+    public void nonSuccessStatusFails() throws IOException {
+        status = 500;
+        try (TranslationHttpClient client = new TranslationHttpClient()) {
+            try {
+                client.post(url, Collections.singletonList(new BasicNameValuePair("q", "hello")));
+                fail();
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("500"));
+            }
+            // 错误响应的连接同样归还连接池
+            assertEquals(0, client.getPoolStats().getLeased());
+        }
+        assertNull(new TranslationUtils().toChinese("hello"));
+    }
+
+    @Test
+    public void translatesWithDefaultClient() {
+        JSONObject result = new TranslationUtils().toChinese("hello");
+        assertEquals("hello", result.getString("word"));
+        assertEquals("你好", result.getString("explanations"));
+    }
+
+    @Test
+    public void shutdownDuringRequestRetriesOnNewClient() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        received = new CountDownLatch(1);
+        release = blocked;
+        JSONObject[] result = new JSONObject[1];
+        Thread thread = new Thread(() -> result[0] = new TranslationUtils().toChinese("hello"));
+        thread.start();
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        // 请求进行中关闭默认客户端
+        TranslationUtils.shutdown();
+        blocked.countDown();
+        thread.join(10000);
+        assertNotNull(result[0]);
+        assertEquals("你好", result[0].getString("explanations"));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        CountDownLatch waiting = release;
+        if (waiting != null) {
+            release = null;
+            received.countDown();
+            try {
+                waiting.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.nullptr.utils.file;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * CompressionUtils测试
+ *
+ * @author majl
+ */
+public class CompressionUtilsTest {
+    /** 以"80"开头，符合zlib头部的校验和，但设置了预设字典标志 */
+    private static final byte[] CSV = "80,apples\n81,pears\n".getBytes(StandardCharsets.US_ASCII);
+    /** 以"x^"开头，符合zlib头部且未设置预设字典标志，但不是deflate数据 */
+    private static final byte[] TEXT = "x^2 + y^2 = r^2\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void plainDataResemblingZlibHeaderIsReadAsIs() throws Exception {
+        assertNull(CompressionUtils.detect(CSV[0] & 0xff, CSV[1] & 0xff));
+        assertArrayEquals(CSV, CompressionUtils.decompress(CSV));
+        assertEquals(CompressionUtils.Format.DEFLATE, CompressionUtils.detect(TEXT[0] & 0xff, TEXT[1] & 0xff));
+        assertArrayEquals(TEXT, CompressionUtils.decompress(TEXT));
+        try (InputStream input = CompressionUtils.decompress(new ByteArrayInputStream(TEXT))) {
+            assertArrayEquals(TEXT, IOUtils.toByteArray(input));
+        }
+    }
+
+    @Test
+    public void readDecompressedFileDataReturnsPlainText() throws Exception {
+        File file = File.createTempFile("compression", ".csv");
+        try {
+            Files.write(file.toPath(), CSV);
+            assertArrayEquals(CSV, FileUtils.readDecompressedFileData(file.getPath()));
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    @Test
+    public void compressedDataIsDetected() throws Exception {
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 97);
+        }
+        for (CompressionUtils.Format format : CompressionUtils.Format.values()) {
+            byte[] compressed = CompressionUtils.compress(data, format, Deflater.BEST_SPEED);
+            assertEquals(format, CompressionUtils.detect(compressed[0] & 0xff, compressed[1] & 0xff));
+            assertArrayEquals(data, CompressionUtils.decompress(compressed));
+            try (InputStream input = CompressionUtils.decompress(new ByteArrayInputStream(compressed))) {
+                assertArrayEquals(data, IOUtils.toByteArray(input));
+            }
+        }
+    }
+}
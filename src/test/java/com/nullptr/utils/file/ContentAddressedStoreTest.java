@@ -0,0 +1,40 @@
+package com.nullptr.utils.file;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * ContentAddressedStore测试
+ *
+ * @author majl
+ */
+public class ContentAddressedStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesAfterCompactArePersisted() throws Exception {
+        String root = folder.getRoot().getPath();
+        byte[] data = "data".getBytes(StandardCharsets.UTF_8);
+        try (ContentAddressedStore store = new ContentAddressedStore(root)) {
+            store.writeFileData("/a.txt", data);
+            store.writeFileData("/b.txt", data);
+            store.delete("/b.txt");
+            store.compact();
+            store.writeFileData("/c.txt", data);
+        }
+        try (ContentAddressedStore store = new ContentAddressedStore(root)) {
+            assertEquals(2, store.size());
+            assertFalse(store.isExist("/b.txt"));
+            assertArrayEquals(data, store.readFileData("/c.txt"));
+            assertEquals(2, store.getReferenceCount(store.writeFileData("/a.txt", data)));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.nullptr.utils.file;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileUtils路径处理方法与原基于正则表达式实现的性能对比
+ * <pre>{@code
+ *     mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *     java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main FilePathBenchmark
+ * }</pre>
+ *
+ * @author majl
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilePathBenchmark {
+    private String parentPath = "c:\\file\\userFiles";
+    private String filePath = "temp\\senddoc\\2020828\\xxx.docx";
+
+    @Benchmark
+    public String legacyGetAbsolutePath() {
+        return LegacyPathUtils.getAbsolutePath(parentPath, filePath);
+    }
+
+    @Benchmark
+    public String getAbsolutePath() {
+        return FileUtils.getAbsolutePath(parentPath, filePath);
+    }
+
+    @Benchmark
+    public String legacyGetFileName() {
+        return LegacyPathUtils.getFileName(filePath);
+    }
+
+    @Benchmark
+    public String getFileName() {
+        return FileUtils.getFileName(filePath);
+    }
+
+    @Benchmark
+    public String legacyChangeFileName() {
+        return LegacyPathUtils.changeFileName(parentPath, filePath, "yyy");
+    }
+
+    @Benchmark
+    public String changeFileName() {
+        return FileUtils.changeFileName(parentPath, filePath, "yyy");
+    }
+}
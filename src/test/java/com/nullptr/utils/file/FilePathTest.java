@@ -0,0 +1,82 @@
+package com.nullptr.utils.file;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * FileUtils路径处理方法测试，结果需与原基于正则表达式的实现一致
+ *
+ * @author majl
+ */
+public class FilePathTest {
+    private static final List<String> PATHS = Arrays.asList("", "a", ".", "..", "/", "\\", "//", "\\\\",
+            "a/b", "a\\b", "a/b\\c.d", "dir/", "dir\\", "./a", "a//b", "/tmp/a.b/c", "a.b.c",
+            "c:\\file\\userFiles\\temp\\test.doc", "\\\\server\\share\\f.txt", "/temp/senddoc/2020828/xxx.docx",
+            "中文\\目录/文件.txt", ".hidden", "name.", "/a/.b", "a\\.");
+    private static final List<String> PARENTS = Arrays.asList("", "p", "/p", "p/", "c:\\p\\", "\\", "/", "a.b\\c");
+
+    @Test
+    public void singlePathHelpersMatchLegacyImplementation() {
+        for (String path : paths()) {
+            check("getFileName", path, () -> FileUtils.getFileName(path), () -> LegacyPathUtils.getFileName(path));
+            check("getParentPath", path, () -> FileUtils.getParentPath(path),
+                    () -> LegacyPathUtils.getParentPath(path));
+            check("replaceSplit", path, () -> FileUtils.replaceSplit(path), () -> LegacyPathUtils.replaceSplit(path));
+        }
+    }
+
+    @Test
+    public void joiningHelpersMatchLegacyImplementation() {
+        for (String parent : PARENTS) {
+            for (String path : PATHS) {
+                String input = parent + " | " + path;
+                check("getAbsolutePath", input, () -> FileUtils.getAbsolutePath(parent, path),
+                        () -> LegacyPathUtils.getAbsolutePath(parent, path));
+                for (String newName : Arrays.asList("n", "x/n", "x\\n")) {
+                    check("changeFileName", input + " | " + newName,
+                            () -> FileUtils.changeFileName(parent, path, newName),
+                            () -> LegacyPathUtils.changeFileName(parent, path, newName));
+                }
+            }
+        }
+    }
+
+    /**
+     * 固定路径及由分隔符、点和普通字符随机组成的路径
+     */
+    private static List<String> paths() {
+        List<String> paths = new ArrayList<>(PATHS);
+        Random random = new Random(20261018);
+        char[] alphabet = {'a', 'b', '/', '\\', '.', '中', ':'};
+        for (int i = 0; i < 20000; i++) {
+            char[] chars = new char[random.nextInt(10)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            paths.add(new String(chars));
+        }
+        return paths;
+    }
+
+    /**
+     * 比较两种实现的结果，抛出异常时比较异常类型
+     */
+    private static void check(String method, String input, Supplier<String> actual, Supplier<String> expected) {
+        assertEquals(method + "(" + input + ")", outcome(expected), outcome(actual));
+    }
+
+    private static String outcome(Supplier<String> supplier) {
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+}
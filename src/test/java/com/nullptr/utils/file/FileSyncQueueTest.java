@@ -0,0 +1,77 @@
+package com.nullptr.utils.file;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * FileSyncQueue测试
+ *
+ * @author majl
+ */
+public class FileSyncQueueTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void commitAfterCloseFailsAndDeletesTempFile() throws Exception {
+        FileSyncQueue queue = new FileSyncQueue();
+        queue.close();
+        Path temp = folder.newFile(".a.tmp").toPath();
+        CompletableFuture<Path> future = queue.commit(temp, folder.getRoot().toPath().resolve("a"));
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertFalse(Files.exists(temp));
+    }
+
+    @Test
+    public void commitsRacingWithCloseAllComplete() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 20; round++) {
+                FileSyncQueue queue = new FileSyncQueue(1, 16);
+                List<Future<CompletableFuture<Path>>> commits = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    Path temp = folder.newFile(".f" + round + "-" + i + ".tmp").toPath();
+                    Path target = temp.resolveSibling("f" + round + "-" + i);
+                    commits.add(executor.submit(() -> queue.commit(temp, target)));
+                }
+                queue.close();
+                int completed = 0;
+                for (Future<CompletableFuture<Path>> commit : commits) {
+                    try {
+                        commit.get().get(5, TimeUnit.SECONDS);
+                    } catch (ExecutionException e) {
+                        assertTrue(e.getCause() instanceof IOException);
+                    }
+                    completed++;
+                }
+                assertEquals(commits.size(), completed);
+                assertEquals(0, queue.pendingCount());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
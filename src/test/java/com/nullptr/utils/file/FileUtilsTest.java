@@ -0,0 +1,91 @@
+package com.nullptr.utils.file;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * FileUtils测试
+ *
+ * @author majl
+ */
+public class FileUtilsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaceFileKeepsPermissionsOfExistingFile() throws Exception {
+        Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path target = folder.newFile("data.txt").toPath();
+        Files.setPosixFilePermissions(target, PosixFilePermissions.fromString("rw-r-----"));
+        FileUtils.replaceFile(target.toString(), output -> output.write("new".getBytes(StandardCharsets.UTF_8)), false);
+        assertEquals("new", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        assertEquals("rw-r-----", PosixFilePermissions.toString(Files.getPosixFilePermissions(target)));
+    }
+
+    @Test
+    public void replaceFileCreatesNewFileWithDefaultPermissions() throws Exception {
+        Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path reference = Files.createFile(folder.getRoot().toPath().resolve("reference"));
+        Path target = folder.getRoot().toPath().resolve("created.txt");
+        FileUtils.replaceFile(target.toString(), output -> output.write(1), true);
+        assertEquals(Files.getPosixFilePermissions(reference), Files.getPosixFilePermissions(target));
+    }
+
+    @Test(expected = IllegalBlockingModeException.class)
+    public void transferFileRejectsNonBlockingChannel() throws Exception {
+        Path source = Files.write(folder.newFile("source").toPath(), new byte[1 << 20]);
+        Pipe pipe = Pipe.open();
+        try (Pipe.SinkChannel sink = pipe.sink(); Pipe.SourceChannel ignored = pipe.source()) {
+            sink.configureBlocking(false);
+            FileUtils.transferFile(source.toString(), sink);
+        }
+    }
+
+    @Test
+    public void transferFileFailsWhenChannelStopsAcceptingData() throws Exception {
+        Path source = Files.write(folder.newFile("source").toPath(), new byte[100]);
+        // 只接收前10个字节的通道
+        WritableByteChannel target = new WritableByteChannel() {
+            private int remaining = 10;
+
+            @Override
+            public int write(ByteBuffer src) {
+                int count = Math.min(remaining, src.remaining());
+                src.position(src.position() + count);
+                remaining -= count;
+                return count;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            FileUtils.transferFile(source.toString(), target);
+            fail();
+        } catch (IOException e) {
+            assertEquals("传输文件" + source + "失败，目标通道未写入数据，已传输10字节", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.nullptr.utils.file;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.regex.Matcher;
+
+/**
+ * FileUtils 1.16之前基于正则表达式的路径处理实现，用于对比新实现的结果与性能
+ *
+ * @author majl
+ */
+final class LegacyPathUtils {
+    private LegacyPathUtils() {
+    }
+
+    static String getFileName(String filePath) {
+        filePath = replaceSplit(filePath);
+        int index = filePath.lastIndexOf(FileUtils.SPLIT);
+        return filePath.substring(index + 1);
+    }
+
+    static String getAbsolutePath(String parentPath, String filePath) {
+        parentPath = replaceSplit(parentPath);
+        filePath = replaceSplit(filePath);
+        return filePath.startsWith(FileUtils.SPLIT) ? parentPath + filePath : parentPath + FileUtils.SPLIT + filePath;
+    }
+
+    static String getParentPath(String filePath) {
+        filePath = replaceSplit(filePath);
+        int index = filePath.lastIndexOf(FileUtils.SPLIT);
+        return filePath.substring(0, index);
+    }
+
+    static String replaceSplit(String filePath) {
+        return filePath.replaceAll(Matcher.quoteReplacement("\\"), FileUtils.SPLIT);
+    }
+
+    static String changeFileName(String parentPath, String fileName, String newFileName) {
+        if (StringUtils.isNotEmpty(parentPath)) {
+            fileName = getAbsolutePath(parentPath, fileName);
+            newFileName = getAbsolutePath(parentPath, newFileName);
+        }
+        String fileType = FileUtils.getFileType(fileName);
+        return newFileName + FileUtils.TYPE_SPLIT + fileType;
+    }
+}
@@ -0,0 +1,99 @@
+package com.nullptr.utils.process;
+
+import org.junit.Test;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * CoProcessPool测试
+ *
+ * @author majl
+ */
+public class CoProcessPoolTest {
+    @Test
+    public void multiLineRequestIsRejected() throws Exception {
+        try (CoProcessPool pool = new CoProcessPool(1, "cat")) {
+            try {
+                pool.request("secret-A\nsecret-B");
+                fail();
+            } catch (IllegalArgumentException e) {
+                // 请求未被写入进程
+            }
+            try {
+                pool.request("secret-A\rsecret-B");
+                fail();
+            } catch (IllegalArgumentException e) {
+                // 请求未被写入进程
+            }
+            assertEquals("hello", pool.request("hello"));
+            assertEquals(1, pool.getRequestCount());
+        }
+    }
+
+    @Test
+    public void timedOutWorkerIsDestroyedAndReplaced() throws Exception {
+        // 空行不产生响应，请求超时
+        try (CoProcessPool pool = new CoProcessPool(1, "grep", "--line-buffered", ".")
+                .requestTimeout(200, TimeUnit.MILLISECONDS)) {
+            try {
+                pool.request("");
+                fail();
+            } catch (InterruptedIOException e) {
+                assertEquals(1, pool.getRecycledCount());
+                assertEquals(0, pool.getLiveCount());
+                assertEquals(0, pool.getIdleCount());
+            }
+            assertEquals("next", pool.request("next"));
+            assertEquals(2, pool.getStartedCount());
+        }
+    }
+
+    @Test
+    public void workersHoldSchedulerSlotsUntilClosed() throws Exception {
+        ProcessScheduler scheduler = new ProcessScheduler(4);
+        try {
+            CoProcessPool pool = new CoProcessPool(2, "cat").scheduler(scheduler);
+            pool.warmUp();
+            assertEquals(2, scheduler.getRunningCount());
+            assertEquals("x", pool.request("x"));
+            pool.close();
+            assertEquals(0, pool.getLiveCount());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (scheduler.getRunningCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, scheduler.getRunningCount());
+            assertEquals(2, scheduler.getCompletedCount());
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    public void hangingHealthCheckDoesNotBlockRequestTimeouts() throws Exception {
+        // 收到ping后不再响应，其余请求原样返回
+        String script = "while read line; do [ \"$line\" = ping ] && exec sleep 100; echo \"$line\"; done";
+        try (CoProcessPool pool = new CoProcessPool(2, "sh", "-c", script)
+                .requestTimeout(300, TimeUnit.MILLISECONDS)
+                .healthCheck("ping", "ping"::equals, 50, TimeUnit.MILLISECONDS)) {
+            pool.warmUp();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (pool.getRecycledCount() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(pool.getRecycledCount() >= 2);
+            long start = System.nanoTime();
+            try {
+                pool.request("ping");
+                fail();
+            } catch (InterruptedIOException e) {
+                assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.nullptr.utils.process;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * ProcessPipeline测试
+ *
+ * @author majl
+ */
+public class ProcessPipelineTest {
+    @Test
+    public void laterCommandExitingEarlyEndsThePipe() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            int[] exitCodes = new ProcessPipeline().command("yes").command("head", "-3").to(output).run();
+            assertEquals(0, exitCodes[1]);
+            // yes在写入已关闭的管道时被SIGPIPE终止
+            assertEquals(128 + 13, exitCodes[0]);
+            assertEquals("y\ny\ny\n", new String(output.toByteArray(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void firstCommandExitingBeforeReadingSourceIsNotAnError() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            int[] exitCodes = new ProcessPipeline().from(new byte[1024 * 1024])
+                    .command("head", "-c", "1").command("cat").run();
+            assertEquals(0, exitCodes[0]);
+            assertEquals(0, exitCodes[1]);
+        }
+    }
+
+    @Test
+    public void timeoutTerminatesAllCommands() throws Exception {
+        List<ProcessExecution> executions = new ProcessPipeline().command("sleep", "5").command("cat")
+                .timeout(200, TimeUnit.MILLISECONDS).start();
+        try {
+            executions.get(0).waitFor();
+            fail();
+        } catch (InterruptedIOException e) {
+            assertTrue(executions.get(0).isTimedOut());
+        }
+        for (ProcessExecution execution : executions) {
+            try {
+                execution.waitFor();
+            } catch (InterruptedIOException e) {
+                assertTrue(execution.isTimedOut());
+            }
+            assertFalse(execution.isAlive());
+        }
+    }
+}
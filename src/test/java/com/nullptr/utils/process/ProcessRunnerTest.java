@@ -0,0 +1,76 @@
+package com.nullptr.utils.process;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * ProcessRunner测试
+ *
+ * @author majl
+ */
+public class ProcessRunnerTest {
+    @Test
+    public void consumerExitingBeforeReadingAllInputIsNotAnError() throws Exception {
+        byte[] input = new byte[1024 * 1024];
+        for (int i = 0; i < 100; i++) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            int exitCode = new ProcessRunner("head", "-c", "1").input(input).onOutput(output::write).run();
+            assertEquals(0, exitCode);
+            assertArrayEquals(new byte[1], output.toByteArray());
+        }
+    }
+
+    @Test
+    public void consumerExitingBeforeReadingInputStreamIsNotAnError() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            int exitCode = new ProcessRunner("head", "-c", "1")
+                    .input(new ByteArrayInputStream(new byte[1024 * 1024]))
+                    .run();
+            assertEquals(0, exitCode);
+        }
+    }
+
+    @Test
+    public void executeWithInputToEarlyExitingConsumer() throws Exception {
+        ProcessUtils.execute("head -c 1", new byte[1024 * 1024]);
+    }
+
+    @Test
+    public void timeoutTerminatesProcess() throws Exception {
+        ProcessExecution execution = new ProcessRunner("sleep", "5")
+                .timeout(200, TimeUnit.MILLISECONDS)
+                .start();
+        try {
+            execution.waitFor();
+            fail();
+        } catch (InterruptedIOException e) {
+            assertTrue(execution.isTimedOut());
+            assertFalse(execution.isAlive());
+        }
+    }
+
+    @Test
+    public void cancelTerminatesProcess() throws Exception {
+        ProcessExecution execution = new ProcessRunner("sleep", "5").start();
+        assertTrue(execution.cancel());
+        try {
+            execution.waitFor();
+            fail();
+        } catch (CancellationException e) {
+            assertTrue(execution.isCancelled());
+            assertFalse(execution.isAlive());
+        }
+        assertFalse(execution.cancel());
+    }
+}
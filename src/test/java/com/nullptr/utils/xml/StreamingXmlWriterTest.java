@@ -0,0 +1,58 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.Element;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * StreamingXmlWriter测试
+ *
+ * @author majl
+ */
+public class StreamingXmlWriterTest {
+    @Test
+    public void attributeWhitespaceSurvivesParsing() throws Exception {
+        String value = "a\nb\tc\r\nd \"&<>\uD83D\uDE00";
+        Element root = parse(write(value, "x\r\ny"));
+        assertEquals(value, root.attributeValue("Name"));
+        assertEquals("x\r\ny", root.getText());
+    }
+
+    @Test
+    public void illegalCharactersAreRejected() throws Exception {
+        for (String value : new String[]{"a\u0000", "\u0001", "\uD83D", "\uDE00a", "\uFFFE"}) {
+            try {
+                write(value, "");
+                fail(value);
+            } catch (IllegalArgumentException e) {
+                // 属性值包含XML中不允许的字符
+            }
+            try {
+                write("", value);
+                fail(value);
+            } catch (IllegalArgumentException e) {
+                // 文本包含XML中不允许的字符
+            }
+        }
+    }
+
+    private static String write(String name, String text) throws Exception {
+        StringWriter output = new StringWriter();
+        try (StreamingXmlWriter writer = new StreamingXmlWriter(output)) {
+            writer.writeDeclaration();
+            writer.openElement("Root", name);
+            writer.addText(text);
+        }
+        return output.toString();
+    }
+
+    private static Element parse(String xml) throws Exception {
+        return XmlUtils.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))).getRootElement();
+    }
+}
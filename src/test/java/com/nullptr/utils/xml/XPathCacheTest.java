@@ -0,0 +1,63 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.dom4j.Node;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * XPathCache测试
+ *
+ * @author majl
+ */
+public class XPathCacheTest {
+    @Test
+    public void resolvesPrefixesAgainstEachQueriedDocument() throws Exception {
+        Document first = DocumentHelper.parseText("<r xmlns:p='urn:a'><p:x v='a'/></r>");
+        Document second = DocumentHelper.parseText("<r xmlns:p='urn:b' xmlns:q='urn:a'><p:x v='b'/><q:x v='c'/></r>");
+        XPathCache cache = new XPathCache();
+        AtomicInteger wrong = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                Document document = i % 2 == 0 ? first : second;
+                String expected = i % 2 == 0 ? "a" : "b";
+                futures.add(executor.submit(() -> {
+                    List<Node> nodes = cache.selectNodes("//p:x", document);
+                    if (nodes.size() != 1 || !expected.equals(((Element) nodes.get(0)).attributeValue("v"))) {
+                        wrong.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, wrong.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void selectSingleNodeReturnsNullWhenNothingMatches() throws Exception {
+        Document document = DocumentHelper.parseText("<r><a/></r>");
+        XPathCache cache = new XPathCache(1);
+        assertNull(cache.selectSingleNode("//b", document));
+        cache.selectNodes("//a", document);
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getMissCount());
+    }
+}
@@ -0,0 +1,40 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * XmlBatchQuery测试
+ *
+ * @author majl
+ */
+public class XmlBatchQueryTest {
+    @Test
+    public void parallelQueriesResolvePrefixesPerDocument() throws Exception {
+        Document first = DocumentHelper.parseText("<r xmlns:p='urn:a'><p:x v='a'/></r>");
+        Document second = DocumentHelper.parseText("<r xmlns:p='urn:b' xmlns:q='urn:a'><p:x v='b'/><q:x v='c'/></r>");
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            documents.add(i % 2 == 0 ? first : second);
+        }
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            XmlBatchQuery.Result result = new XmlBatchQuery(pool).add("x", "//p:x", "v").execute(documents);
+            assertTrue(result.getFailures().isEmpty());
+            for (int i = 0; i < documents.size(); i++) {
+                assertEquals(Collections.singletonList(i % 2 == 0 ? "a" : "b"), result.getColumn("x", i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
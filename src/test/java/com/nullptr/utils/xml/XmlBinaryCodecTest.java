@@ -0,0 +1,41 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * XmlBinaryCodec测试
+ *
+ * @author majl
+ */
+public class XmlBinaryCodecTest {
+    @Test
+    public void streamDecoderStopsAtEndOfRecord() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append('x');
+        }
+        Document document = DocumentHelper.parseText("<r a='1'><p:x xmlns:p='urn:a'>" + text + "</p:x><!--c--></r>");
+        Element element = DocumentHelper.parseText("<e>tail</e>").getRootElement();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        XmlBinaryCodec.encode(document, output);
+        XmlBinaryCodec.encode(element, output);
+        output.write(42);
+        for (InputStream input : new InputStream[]{new ByteArrayInputStream(output.toByteArray()),
+                new BufferedInputStream(new ByteArrayInputStream(output.toByteArray()), 16)}) {
+            assertEquals(document.asXML(), XmlBinaryCodec.decodeDocument(input).asXML());
+            assertEquals(element.asXML(), XmlBinaryCodec.decodeElement(input).asXML());
+            assertEquals(42, input.read());
+            assertEquals(-1, input.read());
+        }
+    }
+}
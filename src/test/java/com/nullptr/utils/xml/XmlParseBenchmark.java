@@ -0,0 +1,55 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.io.SAXReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XmlUtils.parse与每次新建SAXReader解析的性能对比
+ * <pre>{@code
+ *     mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *     java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main XmlParseBenchmark
+ * }</pre>
+ *
+ * @author majl
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlParseBenchmark {
+    private byte[] xml;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("<?xml version='1.0' encoding='UTF-8'?><Groups>");
+        for (int i = 0; i < 20; i++) {
+            builder.append("<Group Name='g").append(i).append("'><Host Name='h").append(i).append("'>10.0.0.")
+                    .append(i).append("</Host></Group>");
+        }
+        xml = builder.append("</Groups>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 原实现：每次解析新建SAXReader
+     */
+    @Benchmark
+    public Document newSAXReader() throws DocumentException {
+        return new SAXReader().read(new ByteArrayInputStream(xml));
+    }
+
+    /**
+     * 线程内复用的解析器
+     */
+    @Benchmark
+    public Document pooledReader() throws DocumentException {
+        return XmlUtils.parse(new ByteArrayInputStream(xml));
+    }
+}
@@ -0,0 +1,63 @@
+package com.nullptr.utils.xml;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * XmlUtils测试
+ *
+ * @author majl
+ */
+public class XmlUtilsTest {
+    @Test
+    public void pooledReaderDoesNotRetainParsedDocument() throws Exception {
+        WeakReference<Document> reference = new WeakReference<>(parse("<!DOCTYPE r><r><a>1</a><!--c--></r>"));
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+        // 清除处理器后解析器仍可继续使用
+        assertEquals("2", parse("<r><a>2</a></r>").getRootElement().elementText("a"));
+    }
+
+    @Test
+    public void getElementByNameFindsChildRenamedOutsideIndex() {
+        Element parent = DocumentHelper.createElement("Groups");
+        Element first = XmlUtils.getElementByName(parent, "Group", "a");
+        XmlUtils.getElementByName(parent, "Group", "b");
+        // 子节点数量不变，索引中仍为旧名称
+        first.addAttribute("Name", "c");
+        assertSame(first, XmlUtils.getElementByName(parent, "Group", "c"));
+        assertEquals(2, parent.elements().size());
+        // 旧名称已不存在，创建新的子元素
+        assertEquals("a", XmlUtils.getElementByName(parent, "Group", "a").attributeValue("Name"));
+        assertEquals(3, parent.elements().size());
+    }
+
+    @Test
+    public void getElementByNameFindsChildReplacedOutsideIndex() {
+        Element parent = DocumentHelper.createElement("Groups");
+        Element removed = XmlUtils.getElementByName(parent, "Group", "a");
+        XmlUtils.getElementByName(parent, "Group", "b");
+        // 移除后添加，子节点数量不变
+        parent.remove(removed);
+        Element added = parent.addElement("Group").addAttribute("Name", "c");
+        assertSame(added, XmlUtils.getElementByName(parent, "Group", "c"));
+        assertEquals(2, parent.elements().size());
+    }
+
+    private static Document parse(String xml) throws Exception {
+        return XmlUtils.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+}